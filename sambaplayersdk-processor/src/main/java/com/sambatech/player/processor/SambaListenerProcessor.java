@@ -0,0 +1,224 @@
+package com.sambatech.player.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+
+/**
+ * Generates a `SambaListenerDispatcher` for every class annotated with `SambaListener`,
+ * so the event bus resolves and invokes its handlers without reflection.
+ */
+public class SambaListenerProcessor extends AbstractProcessor {
+
+    private static final String EVENT_PACKAGE = "com.sambatech.player.event";
+    private static final String ANNOTATION = EVENT_PACKAGE + ".SambaListener";
+    private static final String LISTENER = EVENT_PACKAGE + ".SambaPlayerListener";
+    private static final String EVENT_TYPE = LISTENER + ".EventType";
+    private static final String EVENT = EVENT_PACKAGE + ".SambaEvent";
+    private static final String SUFFIX = "_SambaDispatcher";
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Collections.singleton(ANNOTATION);
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement annotation = processingEnv.getElementUtils().getTypeElement(ANNOTATION);
+
+        if (annotation == null)
+            return false;
+
+        for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+            if (element.getKind() != ElementKind.CLASS) {
+                error(element, "@SambaListener applies only to classes");
+                continue;
+            }
+
+            TypeElement type = (TypeElement) element;
+
+            if (isValid(type)) {
+                try {
+                    generate(type);
+                } catch (IOException e) {
+                    error(type, "Could not generate dispatcher: " + e.getMessage());
+                }
+            }
+        }
+
+        return true;
+    }
+
+    private boolean isValid(TypeElement type) {
+        TypeElement listener = processingEnv.getElementUtils().getTypeElement(LISTENER);
+
+        if (listener == null || !processingEnv.getTypeUtils().isSubtype(type.asType(),
+                processingEnv.getTypeUtils().erasure(listener.asType()))) {
+            error(type, "@SambaListener classes must extend SambaPlayerListener");
+            return false;
+        }
+
+        for (Element e = type; e.getKind() != ElementKind.PACKAGE; e = e.getEnclosingElement()) {
+            if (e.getModifiers().contains(Modifier.PRIVATE)) {
+                error(type, "@SambaListener classes must not be private");
+                return false;
+            }
+        }
+
+        if (!type.getTypeParameters().isEmpty()) {
+            error(type, "@SambaListener classes must not be generic");
+            return false;
+        }
+
+        return type.getNestingKind() == NestingKind.TOP_LEVEL || type.getNestingKind() == NestingKind.MEMBER;
+    }
+
+    private void generate(TypeElement type) throws IOException {
+        String packageName = getPackage(type).getQualifiedName().toString();
+        String listenerName = getCanonicalName(type, packageName);
+        String dispatcherName = listenerName.replace('.', '_') + SUFFIX;
+        Map<String, String> handlers = getHandlers(type);
+
+        StringBuilder mask = new StringBuilder();
+        StringBuilder cases = new StringBuilder();
+
+        for (Map.Entry<String, String> kv : handlers.entrySet()) {
+            mask.append(mask.length() > 0 ? "\n                | " : "")
+                    .append("1L << SambaPlayerListener.EventType.").append(kv.getKey()).append(".ordinal()");
+            cases.append("            case ").append(kv.getKey()).append(": l.").append(kv.getValue())
+                    .append("(e); break;\n");
+        }
+
+        Writer writer = processingEnv.getFiler().createSourceFile(
+                (packageName.isEmpty() ? "" : packageName + ".") + dispatcherName, type).openWriter();
+
+        try {
+            if (!packageName.isEmpty())
+                writer.write("package " + packageName + ";\n\n");
+
+            writer.write("import " + EVENT + ";\n"
+                    + "import " + EVENT_PACKAGE + ".SambaListenerDispatcher;\n"
+                    + "import " + LISTENER + ";\n\n"
+                    + "/**\n * Generated by SambaListenerProcessor, do not edit.\n */\n"
+                    + "public final class " + dispatcherName + " implements SambaListenerDispatcher {\n\n"
+                    + "    private static final long HANDLED_TYPES = " + (mask.length() > 0 ? mask : "0") + ";\n\n"
+                    + "    @Override\n"
+                    + "    public long getHandledTypes() {\n"
+                    + "        return HANDLED_TYPES;\n"
+                    + "    }\n\n"
+                    + "    @Override\n"
+                    + "    public void dispatch(Object listener, SambaEvent e) {\n"
+                    + "        " + listenerName + " l = (" + listenerName + ") listener;\n\n"
+                    + "        switch ((SambaPlayerListener.EventType) e.getType()) {\n"
+                    + cases
+                    + "            default: break;\n"
+                    + "        }\n"
+                    + "    }\n"
+                    + "}\n");
+        } finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * Maps each event type to its handler overridden by the listener or one of its superclasses.
+     */
+    private Map<String, String> getHandlers(TypeElement type) {
+        Map<String, String> handlers = new LinkedHashMap<>();
+        TypeElement eventType = processingEnv.getElementUtils().getTypeElement(EVENT_TYPE);
+
+        for (Element constant : eventType.getEnclosedElements()) {
+            if (constant.getKind() != ElementKind.ENUM_CONSTANT)
+                continue;
+
+            String name = getHandlerName(constant.getSimpleName().toString());
+
+            for (TypeElement c = type; c != null && !c.getQualifiedName().contentEquals(LISTENER); c = getSuperclass(c)) {
+                if (declaresHandler(c, name)) {
+                    handlers.put(constant.getSimpleName().toString(), name);
+                    break;
+                }
+            }
+        }
+
+        return handlers;
+    }
+
+    private boolean declaresHandler(TypeElement type, String name) {
+        for (Element member : type.getEnclosedElements()) {
+            if (member.getKind() != ElementKind.METHOD || !member.getSimpleName().contentEquals(name))
+                continue;
+
+            ExecutableElement method = (ExecutableElement) member;
+
+            if (method.getParameters().size() == 1 && method.getModifiers().contains(Modifier.PUBLIC)
+                    && !method.getModifiers().contains(Modifier.STATIC)
+                    && processingEnv.getTypeUtils().erasure(method.getParameters().get(0).asType()).toString().equals(EVENT))
+                return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * E.g. FULLSCREEN_EXIT: onFullscreenExit (same convention as the event bus).
+     */
+    private static String getHandlerName(String eventType) {
+        StringBuilder name = new StringBuilder("on");
+
+        for (String part : eventType.toLowerCase(Locale.ENGLISH).split("_"))
+            name.append(Character.toUpperCase(part.charAt(0))).append(part.substring(1));
+
+        return name.toString();
+    }
+
+    private static TypeElement getSuperclass(TypeElement type) {
+        TypeMirror superclass = type.getSuperclass();
+
+        return superclass.getKind() == TypeKind.DECLARED ? (TypeElement) ((DeclaredType) superclass).asElement() : null;
+    }
+
+    private static PackageElement getPackage(Element element) {
+        while (element.getKind() != ElementKind.PACKAGE)
+            element = element.getEnclosingElement();
+
+        return (PackageElement) element;
+    }
+
+    /**
+     * Name relative to the package, e.g. "Outer.Inner".
+     */
+    private static String getCanonicalName(TypeElement type, String packageName) {
+        String name = type.getQualifiedName().toString();
+
+        return packageName.isEmpty() ? name : name.substring(packageName.length() + 1);
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
@@ -0,0 +1,8 @@
+# Event bus: generated dispatchers are looked up by the name of their listener
+-keepnames @com.sambatech.player.event.SambaListener class *
+-keep class * implements com.sambatech.player.event.SambaListenerDispatcher { <init>(); }
+
+# Event bus: listeners without a generated dispatcher are resolved by their handler names
+-keepclassmembers class * extends com.sambatech.player.event.SambaPlayerListener {
+    public void on*(com.sambatech.player.event.SambaEvent);
+}
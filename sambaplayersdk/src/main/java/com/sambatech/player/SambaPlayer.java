@@ -3,6 +3,9 @@ package com.sambatech.player;
 import android.app.Activity;
 import android.content.Context;
 import android.content.res.TypedArray;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
 import android.support.annotation.NonNull;
 import android.util.AttributeSet;
 import android.util.Log;
@@ -25,10 +28,13 @@ import com.google.android.exoplayer2.SimpleExoPlayer;
 import com.google.android.exoplayer2.drm.DrmSession;
 import com.google.android.exoplayer2.drm.UnsupportedDrmException;
 import com.google.android.exoplayer2.source.BehindLiveWindowException;
+import com.google.android.exoplayer2.source.ConcatenatingMediaSource;
+import com.google.android.exoplayer2.source.MediaSource;
 import com.google.android.exoplayer2.source.TrackGroupArray;
 import com.google.android.exoplayer2.trackselection.TrackSelection;
 import com.google.android.exoplayer2.trackselection.TrackSelectionArray;
 import com.google.android.exoplayer2.ui.PlayerView;
+import com.google.android.exoplayer2.upstream.HttpDataSource;
 import com.google.android.gms.cast.MediaInfo;
 import com.google.android.gms.cast.MediaMetadata;
 import com.google.android.gms.cast.MediaQueueItem;
@@ -42,10 +48,12 @@ import com.sambatech.player.cast.CastOptionsProvider;
 import com.sambatech.player.cast.CastPlayer;
 import com.sambatech.player.cast.CastQuery;
 import com.sambatech.player.cast.SambaCast;
+import com.sambatech.player.event.SambaApiCallback;
 import com.sambatech.player.event.SambaCastListener;
 import com.sambatech.player.event.SambaEvent;
-import com.sambatech.player.event.SambaEventBus;
+import com.sambatech.player.event.SambaLocalEventBus;
 import com.sambatech.player.event.SambaPlayerListener;
+import com.sambatech.player.event.SambaProgressChannel;
 import com.sambatech.player.mediasource.PlayerInstanceDefault;
 import com.sambatech.player.mediasource.PlayerMediaSourceDash;
 import com.sambatech.player.mediasource.PlayerMediaSourceExtractor;
@@ -53,24 +61,20 @@ import com.sambatech.player.mediasource.PlayerMediaSourceHLS;
 import com.sambatech.player.mediasource.PlayerMediaSourceInterface;
 import com.sambatech.player.model.SambaMedia;
 import com.sambatech.player.model.SambaMediaConfig;
+import com.sambatech.player.model.SambaMediaRequest;
 import com.sambatech.player.model.SambaPlayerError;
 import com.sambatech.player.plugins.PluginManager;
 import com.sambatech.player.utils.CastLiveButtonListener;
 import com.sambatech.player.utils.Helpers;
 import com.sambatech.player.utils.Orientation;
+import com.sambatech.player.utils.SambaNetworkMonitor;
 
 import org.w3c.dom.Text;
 
-import java.io.IOException;
-import java.net.HttpURLConnection;
-import java.net.URL;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Timer;
-import java.util.TimerTask;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
 
 import static android.content.ContentValues.TAG;
 
@@ -81,6 +85,10 @@ import static android.content.ContentValues.TAG;
  */
 public class SambaPlayer /*extends FrameLayout*/ {
 
+    private static final long PROGRESS_INTERVAL_MS = 250;
+    private static final long BUFFERING_TIMEOUT_MS = 20000;
+    private static final int RECONNECT_DELAY_SECS = 8;
+
     Activity flutterActivity;
 
     Context context;
@@ -132,12 +140,20 @@ public class SambaPlayer /*extends FrameLayout*/ {
                     if (playWhenReady) {
 
 
+                        if (_recoveryStart > 0) {
+                            recoveryMetrics.onRecovered(_recoveryInPlace, SystemClock.elapsedRealtime() - _recoveryStart);
+                            _recoveryStart = 0;
+                        }
+
                         if (!_hasStarted) {
                             _hasStarted = true;
                             _currentRetryIndex = 0;
 
+                            SambaPlayerPool.getInstance(context).onStart(playerInstanceDefault);
+
                             destroyError();
-                            SambaEventBus.post(new SambaEvent(SambaPlayerListener.EventType.START));
+                            eventBus.post(new SambaEvent(SambaPlayerListener.EventType.START));
+                            preloadNextItem();
 
                             // initial position
                             if (!media.isLive && _initialTime > 0) {
@@ -162,39 +178,40 @@ public class SambaPlayer /*extends FrameLayout*/ {
                 case Player.STATE_ENDED:
                     if (!playWhenReady || player.isPlayingAd())
                         break;
+
+                    // next playlist item could not be played gaplessly
+                    if (playlist != null && _playlistIndex + 1 < playlist.size()) {
+                        stopProgressTimer();
+                        eventBus.post(new SambaEvent(SambaPlayerListener.EventType.FINISH));
+                        _hasFinished = true;
+                        handler.post(new Runnable() {
+                            @Override
+                            public void run() {
+                                loadPlaylistItem(_playlistIndex + 1);
+                            }
+                        });
+                        break;
+                    }
+
                     pause();
                     player.seekTo(0);
                     Log.d(TAG, "onPlayerStateChanged: " + player.isPlayingAd());
                     stopProgressTimer();
-                    SambaEventBus.post(new SambaEvent(SambaPlayerListener.EventType.FINISH));
+                    eventBus.post(new SambaEvent(SambaPlayerListener.EventType.FINISH));
                     _hasFinished = true;
 //                    simplePlayerView.updatePlayPause(PlayPauseState.Pause);
 
                     break;
                 case Player.STATE_BUFFERING:
 //                    simplePlayerView.updatePlayPause(PlayPauseState.Loading);
-                    stopErrorTimer();
-
                     // buffering timeout
-                    final AtomicInteger secs = new AtomicInteger(20);
-
-                    errorTimer = new Timer();
-                    errorTimer.scheduleAtFixedRate(new TimerTask() {
+                    startErrorTimer(new Runnable() {
                         @Override
                         public void run() {
-                            getActivity().runOnUiThread(new Runnable() {
-                                @Override
-                                public void run() {
-                                    // on buffer timeout disable ABR (sets to lower)
-                                    if (secs.get() == 0) {
-                                        stopErrorTimer();
-                                    }
-
-                                    secs.decrementAndGet();
-                                }
-                            });
+                            // on buffer timeout disable ABR (sets to lower)
+                            stopErrorTimer();
                         }
-                    }, 0, 1000);
+                    }, BUFFERING_TIMEOUT_MS);
                     break;
             }
         }
@@ -222,22 +239,11 @@ public class SambaPlayer /*extends FrameLayout*/ {
 //                }
 //            }
 
-            if (_initialTime == 0f)
-                _initialTime = getCurrentTime();
-
-
-            _currentOutputIndex = playerMediaSourceInterface.getCurrentOutputTrackIndex(player.getCurrentTrackSelections(), _abrEnabled);
-            _currentCaptionIndex = playerMediaSourceInterface.getCurrentCaptionTrackIndex(player.getCurrentTrackSelections());
-
-            if (_currentCaptionIndex >= 0) _forceCaptionIndexTo = _currentCaptionIndex;
-            if (_currentOutputIndex >= 0) _forceOutputIndexTo = _currentOutputIndex;
-
-//            _initialFullscreen = simplePlayerView.isFullscreen();
-
-            destroyInternal();
+            boolean canFallback = _currentBackupIndex < media.backupUrls.length;
 
             // unauthorized DRM content
             if (error instanceof DrmSession.DrmSessionException || error.getCause() instanceof UnsupportedDrmException) {
+                destroyForRecovery();
                 msg = String.format("Você não tem permissão para %s", media.isAudioOnly ? "ouvir este áudio." : "assistir este vídeo.");
                 severity = SambaPlayerError.Severity.critical;
             }
@@ -245,84 +251,64 @@ public class SambaPlayer /*extends FrameLayout*/ {
             else if (isBehindLiveWindowException) {
                 msg = "Instabilidade na rede ou no envio de dados.";
                 severity = SambaPlayerError.Severity.minor;
-                create(false);
+                // back to the live edge, keeping the player
+                recoverInPlace(null);
             }
             // URL not found
-            else if (Helpers.isNetworkAvailable(context)) {
-                msg = "Conectando...";
-                severity = SambaPlayerError.Severity.info;
-
-                try {
-                    final HttpURLConnection con = (HttpURLConnection) new URL(String.format("%s://www.google.com",
-                            media.request.protocol)).openConnection();
-
-                    con.setConnectTimeout(1000);
-                    con.setReadTimeout(1000);
-
-                    Helpers.requestUrl(con, new Helpers.RequestCallback() {
-                        @Override
-                        public void onSuccess(String response) {
-                            // check whether it can fallback (changes error criticity) or fail otherwise
-                            getActivity().runOnUiThread(new Runnable() {
-                                @Override
-                                public void run() {
-                                    if (_currentBackupIndex < media.backupUrls.length) {
-                                        media.url = media.backupUrls[_currentBackupIndex++];
-
-                                        create(false);
-                                        dispatchError(SambaPlayerError.unknown.setValues(SambaPlayerError.unknown.getCode(),
-                                                "Conectando...", SambaPlayerError.Severity.info, error));
-                                        return;
-                                    }
-
-                                    dispatchError(SambaPlayerError.unknown.setValues(SambaPlayerError.unknown.getCode(),
-                                            "Ocorreu um erro! Por favor, tente mais tarde...",
-                                            SambaPlayerError.Severity.critical, error));
-                                }
-                            });
-                        }
-
-                        @Override
-                        public void onError(Exception e, String response) {
-                            dispatchError(SambaPlayerError.unknown.setValues(SambaPlayerError.unknown.getCode(),
-                                    "Você está offline! Verifique sua conexão.",
-                                    SambaPlayerError.Severity.recoverable, e));
+            else if (networkMonitor.isConnected()) {
+                // the server responded or the network is known to work, so the media URL is at fault
+                if (error instanceof HttpDataSource.InvalidResponseCodeException || networkMonitor.isOnline()) {
+                    // fallback (changes error criticity) or fail otherwise
+                    if (canFallback) {
+                        String url = media.backupUrls[_currentBackupIndex++];
+
+                        msg = "Conectando...";
+                        severity = SambaPlayerError.Severity.info;
+
+                        if (playlistSource == null)
+                            recoverInPlace(url);
+                        else {
+                            destroyForRecovery();
+                            media.url = url;
+                            startRecovery(false);
+                            create(false);
                         }
-                    });
-                } catch (IOException e1) {
-                    msg = "Ocorreu um erro! Por favor, tente novamente.";
-                    severity = SambaPlayerError.Severity.recoverable;
+                    } else {
+                        destroyForRecovery();
+                        msg = "Ocorreu um erro! Por favor, tente mais tarde...";
+                        severity = SambaPlayerError.Severity.critical;
+                    }
                 }
+                else destroyForRecovery();
             }
             // no network connection
             else if (_currentRetryIndex++ < media.retriesTotal) {
-                final AtomicInteger secs = new AtomicInteger(8);
+                destroyForRecovery();
+
+                // reconnect countdown
+                startErrorTimer(new Runnable() {
 
-                stopErrorTimer();
+                    int secs = RECONNECT_DELAY_SECS;
 
-                errorTimer = new Timer();
-                errorTimer.scheduleAtFixedRate(new TimerTask() {
                     @Override
                     public void run() {
-                        getActivity().runOnUiThread(new Runnable() {
-                            @Override
-                            public void run() {
-                                if (secs.get() == 0) {
-                                    stopErrorTimer();
-                                    create(false);
-                                }
+                        if (secs == 0) {
+                            stopErrorTimer();
+                            startRecovery(false);
+                            create(false);
+                        }
 
-                                dispatchError(SambaPlayerError.unknown.setValues(SambaPlayerError.unknown.getCode(),
-                                        secs.get() > 0 ? String.format("Reconectando em %ss", secs) : "Conectando...",
-                                        SambaPlayerError.Severity.info, error, R.drawable.sambaplayer_ic_nosignal));
+                        dispatchError(SambaPlayerError.unknown.setValues(SambaPlayerError.unknown.getCode(),
+                                secs > 0 ? String.format("Reconectando em %ss", secs) : "Conectando...",
+                                SambaPlayerError.Severity.info, error, R.drawable.sambaplayer_ic_nosignal));
 
-                                secs.decrementAndGet();
-                            }
-                        });
+                        if (secs-- > 0 && errorTask == this)
+                            handler.postDelayed(this, 1000);
                     }
-                }, 0, 1000);
+                }, 0);
                 return;
             }
+            else destroyForRecovery();
 
             dispatchError(SambaPlayerError.unknown.setValues(SambaPlayerError.unknown.getCode(),
                     msg, severity, error));
@@ -330,6 +316,11 @@ public class SambaPlayer /*extends FrameLayout*/ {
 
         @Override
         public void onPositionDiscontinuity(int reason) {
+            // playlist transition (or seek) to a preloaded item
+            if (playlistSource != null && player.getCurrentWindowIndex() != _playlistIndex - _playlistBaseIndex
+                    && player.getCurrentWindowIndex() < playlistItems.size())
+                startPlaylistItem(player.getCurrentWindowIndex());
+
             adjustCurrentOutputs(); //Pode ser o fim do primero AD
         }
 
@@ -351,12 +342,12 @@ public class SambaPlayer /*extends FrameLayout*/ {
     private final SambaSimplePlayerView.FullscreenCallback fullscreenListener = new SambaSimplePlayerView.FullscreenCallback() {
         @Override
         public void onGoToFullscreen() {
-            SambaEventBus.post(new SambaEvent(SambaPlayerListener.EventType.FULLSCREEN));
+            eventBus.post(new SambaEvent(SambaPlayerListener.EventType.FULLSCREEN));
         }
 
         @Override
         public void onReturnFromFullscreen() {
-            SambaEventBus.post(new SambaEvent(SambaPlayerListener.EventType.FULLSCREEN_EXIT));
+            eventBus.post(new SambaEvent(SambaPlayerListener.EventType.FULLSCREEN_EXIT));
         }
     };
 
@@ -366,7 +357,23 @@ public class SambaPlayer /*extends FrameLayout*/ {
         public void run() {
             if (player == null) return;
 
-            SambaEventBus.post(new SambaEvent(SambaPlayerListener.EventType.PROGRESS, getCurrentTime(), getDuration()));
+            Player current = sambaCast != null && sambaCast.isCasting() && castPlayer != null ? castPlayer : player;
+
+            progressChannel.update(current.getCurrentPosition(), current.getDuration(), current.getBufferedPosition(),
+                    SystemClock.uptimeMillis());
+
+            // legacy event, only allocated when listened to
+            if (eventBus.hasSubscribers(SambaPlayerListener.EventType.PROGRESS))
+                eventBus.post(new SambaEvent(SambaPlayerListener.EventType.PROGRESS, getCurrentTime(), getDuration()));
+        }
+    };
+
+    private final Runnable progressTask = new Runnable() {
+        @Override
+        public void run() {
+            // reschedules before dispatching so listeners may stop the timer
+            handler.postDelayed(this, PROGRESS_INTERVAL_MS);
+            progressDispatcher.run();
         }
     };
 
@@ -384,7 +391,7 @@ public class SambaPlayer /*extends FrameLayout*/ {
             stopProgressTimer();
             player.setPlayWhenReady(false);
 
-            SambaEventBus.post(new SambaEvent(SambaPlayerListener.EventType.CAST_CONNECT));
+            eventBus.post(new SambaEvent(SambaPlayerListener.EventType.CAST_CONNECT));
 
             final RemoteMediaClient remoteMediaClient = castSession.getRemoteMediaClient();
             if (remoteMediaClient == null) return;
@@ -477,7 +484,7 @@ public class SambaPlayer /*extends FrameLayout*/ {
         @Override
         public void onDisconnected() {
             SambaCast.cleanCacheDatas(context);
-            SambaEventBus.post(new SambaEvent(SambaPlayerListener.EventType.CAST_DISCONNECT));
+            eventBus.post(new SambaEvent(SambaPlayerListener.EventType.CAST_DISCONNECT));
             long lastPosition = castPlayer.getContentPosition();
 
 //            if (simplePlayerView != null) {
@@ -502,7 +509,7 @@ public class SambaPlayer /*extends FrameLayout*/ {
     private View errorScreen;
     private @NonNull
     SambaMediaConfig media = new SambaMediaConfig();
-    private Timer progressTimer;
+    private boolean _progressTimerRunning;
     private boolean _hasStarted;
     private boolean _hasFinished;
     private OrientationEventListener orientationEventListener;
@@ -513,7 +520,7 @@ public class SambaPlayer /*extends FrameLayout*/ {
 
     private float _initialTime = 0f;
     private Boolean _initialFullscreen = null;
-    private Timer errorTimer;
+    private Runnable errorTask;
     private List<String> controlsHidden = new ArrayList<>();
     private boolean _abrEnabled = true;
     private int _forceOutputIndexTo = -1;
@@ -525,10 +532,29 @@ public class SambaPlayer /*extends FrameLayout*/ {
     private int _currentOutputIndex = -1;
     private int _currentCaptionIndex = -1;
 
+    private SambaNetworkMonitor networkMonitor;
+    private long _recoveryStart;
+    private boolean _recoveryInPlace;
+    private final RecoveryMetrics recoveryMetrics = new RecoveryMetrics();
+
+    private SambaPlaylist playlist;
+    private int _playlistIndex;
+    // preloaded playlist items (window index relative to the first one)
+    private ConcatenatingMediaSource playlistSource;
+    private final List<PlaylistItem> playlistItems = new ArrayList<>();
+    private int _playlistBaseIndex;
+
+    private final SambaLocalEventBus eventBus = new SambaLocalEventBus();
+    private final PluginManager pluginManager = new PluginManager();
+    // single scheduler for progress, buffering timeout and reconnect countdown (no thread per timer)
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final SambaProgressChannel progressChannel = new SambaProgressChannel();
+
 
 //    private SambaSimplePlayerView simplePlayerView;
     private SimpleExoPlayer player;
     private PlayerInstanceDefault playerInstanceDefault;
+    private PlayerView playerView;
     private PlayerMediaSourceInterface playerMediaSourceInterface;
     //private boolean wasPlaying;
     private Surface videoSurface;
@@ -541,6 +567,11 @@ public class SambaPlayer /*extends FrameLayout*/ {
     public SambaPlayer(Context context, AttributeSet attrs) {
 //        super(context, attrs);
         this.context = context;
+        this.networkMonitor = SambaNetworkMonitor.getInstance(context);
+
+        // late subscribers (e.g. plugins) get the current state
+        eventBus.setSticky(SambaPlayerListener.EventType.LOAD, true);
+        eventBus.setSticky(SambaPlayerListener.EventType.START, true);
         //applyAttributes(getContext().getTheme().obtainStyledAttributes(attrs, R.styleable.SambaPlayer, 0, 0));
     }
 
@@ -565,12 +596,113 @@ public class SambaPlayer /*extends FrameLayout*/ {
         return this.player;
     }
 
+    /**
+     * Retrieves the event bus of this player.
+     * Its events are also forwarded to the global bus (`SambaEventBus`).
+     *
+     * @return The player event bus
+     */
+    public @NonNull
+    SambaLocalEventBus getEventBus() {
+        return eventBus;
+    }
+
+    /**
+     * Retrieves the plugin manager of this player.
+     *
+     * @return The player plugin manager
+     */
+    public @NonNull
+    PluginManager getPluginManager() {
+        return pluginManager;
+    }
+
+    /**
+     * Retrieves the playback progress of this player.
+     * Prefer subscribing to it over listening to PROGRESS events, it generates no garbage.
+     *
+     * @return The player progress channel
+     */
+    public @NonNull
+    SambaProgressChannel getProgressChannel() {
+        return progressChannel;
+    }
+
+    /**
+     * Retrieves the error recovery metrics of this player (snapshot).
+     *
+     * @return The recovery metrics
+     */
+    public @NonNull
+    RecoveryMetrics getRecoveryMetrics() {
+        return new RecoveryMetrics(recoveryMetrics);
+    }
+
     /**
      * Defines/overwrites current media.
      *
      * @param media The media to be played.
      */
     public void setMedia(@NonNull SambaMedia media) {
+        if (playlist != null) {
+            playlist.cancel();
+            playlist = null;
+        }
+
+        load(media);
+    }
+
+    /**
+     * Defines a sequence of medias to be played, starting playback once the first one is resolved.
+     * <p>
+     * The next item is resolved and preloaded while the current one plays, so the transition is gapless
+     * (except for live and DRM medias, which are loaded when the previous item finishes).
+     * Each item dispatches its own LOAD, START and FINISH events.
+     *
+     * @param playlist The medias to be played
+     */
+    public void setPlaylist(@NonNull SambaPlaylist playlist) {
+        destroy();
+        this.playlist = playlist;
+        _playlistIndex = 0;
+
+        if (playlist.size() > 0)
+            loadPlaylistItem(0);
+    }
+
+    /**
+     * Retrieves the current playlist, if any.
+     *
+     * @return The playlist or null if playing a single media
+     */
+    public SambaPlaylist getPlaylist() {
+        return playlist;
+    }
+
+    /**
+     * Retrieves the index of the current playlist item.
+     *
+     * @return The item index (0 if playing a single media)
+     */
+    public int getPlaylistIndex() {
+        return _playlistIndex;
+    }
+
+    /**
+     * Skips to the next playlist item (instantly if already preloaded).
+     */
+    public void next() {
+        if (playlist == null || _playlistIndex + 1 >= playlist.size())
+            return;
+
+        int window = _playlistIndex + 1 - _playlistBaseIndex;
+
+        if (player != null && playlistSource != null && window < playlistItems.size())
+            player.seekTo(window, 0);
+        else loadPlaylistItem(_playlistIndex + 1);
+    }
+
+    private void load(@NonNull SambaMedia media) {
         SambaMediaConfig m = new SambaMediaConfig(media);
 
         this.media = m;
@@ -586,7 +718,7 @@ public class SambaPlayer /*extends FrameLayout*/ {
 
         // TODO: create thumbnail or create audio player
 
-        PluginManager.getInstance().onLoad(this);
+        pluginManager.onLoad(this);
     }
 
     /**
@@ -616,8 +748,8 @@ public class SambaPlayer /*extends FrameLayout*/ {
         if (_disabled || errorScreen != null) return;
 
         // defer play if plugins not loaded yet
-        if (!PluginManager.getInstance().isLoaded()) {
-            PluginManager.getInstance().setPendingPlay(true);
+        if (!pluginManager.isLoaded()) {
+            pluginManager.setPendingPlay(true);
             return;
         }
 
@@ -637,7 +769,7 @@ public class SambaPlayer /*extends FrameLayout*/ {
             player.setPlayWhenReady(false);
         } else {
             player.setPlayWhenReady(true);
-            SambaEventBus.post(new SambaEvent(SambaPlayerListener.EventType.PLAY));
+            eventBus.post(new SambaEvent(SambaPlayerListener.EventType.PLAY));
         }
     }
 
@@ -657,7 +789,7 @@ public class SambaPlayer /*extends FrameLayout*/ {
             castPlayer.setPlayWhenReady(false);
         } else {
             player.setPlayWhenReady(false);
-            SambaEventBus.post(new SambaEvent(SambaPlayerListener.EventType.PAUSE));
+            eventBus.post(new SambaEvent(SambaPlayerListener.EventType.PAUSE));
         }
     }
 
@@ -671,7 +803,7 @@ public class SambaPlayer /*extends FrameLayout*/ {
         } else {
             player.stop();
         }
-        SambaEventBus.post(new SambaEvent(SambaPlayerListener.EventType.STOP));
+        eventBus.post(new SambaEvent(SambaPlayerListener.EventType.STOP));
     }
 
     /**
@@ -878,9 +1010,13 @@ public class SambaPlayer /*extends FrameLayout*/ {
      * @param error Error type to show
      */
     public void destroy(SambaPlayerError error) {
-        PluginManager.getInstance().onDestroy();
+        if (playlist != null)
+            playlist.cancel();
+
+        pluginManager.onDestroy();
         destroyInternal();
-        SambaEventBus.post(new SambaEvent(SambaPlayerListener.EventType.DESTROY));
+        eventBus.post(new SambaEvent(SambaPlayerListener.EventType.DESTROY));
+        eventBus.clearStickyEvents();
 
         if (error != null)
             showError(error);
@@ -917,14 +1053,15 @@ public class SambaPlayer /*extends FrameLayout*/ {
             return;
         }
 
-        playerInstanceDefault = new PlayerInstanceDefault(context, media);
+        // reuses a released player when possible
+        playerInstanceDefault = SambaPlayerPool.getInstance(context).acquire(media);
 //        simplePlayerView = new SambaSimplePlayerView(getContext(), this);
 //        simplePlayerView.setFlutterActivity(flutterActivity);
-        player = playerInstanceDefault.createPlayerInstance();
+        player = playerInstanceDefault.getPlayer();
 
       
 
-        PlayerView playerView = new PlayerView(context);
+        playerView = new PlayerView(context);
         playerView.setLayoutParams(new ViewGroup.LayoutParams(
                 ViewGroup.LayoutParams.MATCH_PARENT,
                 ViewGroup.LayoutParams.MATCH_PARENT));
@@ -941,25 +1078,7 @@ public class SambaPlayer /*extends FrameLayout*/ {
 //        simplePlayerView.configView(!media.isAudioOnly, media.isLive, media.isDvr, sambaCast != null && !sambaCast.isCastButtonOut());
 //        simplePlayerView.setEnableControls(_enableControls);
 
-        if (media.url.toLowerCase().endsWith(".mp3"))
-            media.type = "progressive";
-
-        String url = media.isOffline ? media.downloadUrl : media.url;
-        switch (media.type.toLowerCase()) {
-            case "hls":
-                if(media.clientId == 3170) {
-                    playerMediaSourceInterface = new PlayerMediaSourceHLS(playerInstanceDefault, url, true, media.isLive);
-                } else {
-                    playerMediaSourceInterface = new PlayerMediaSourceHLS(playerInstanceDefault, url, false, media.isLive);
-                }
-                break;
-            case "dash":
-                playerMediaSourceInterface = new PlayerMediaSourceDash(playerInstanceDefault, url);
-                break;
-            default:
-                playerMediaSourceInterface = new PlayerMediaSourceExtractor(playerInstanceDefault, url);
-                break;
-        }
+        playerMediaSourceInterface = createMediaSource(media);
 
         player.addListener(playerEventListener);
 
@@ -972,7 +1091,17 @@ public class SambaPlayer /*extends FrameLayout*/ {
 //            playerMediaSourceInterface.addAds(media.adUrl, simplePlayerView.getPlayerView().getOverlayFrameLayout());
 //        }
 
-        player.prepare(playerMediaSourceInterface.getMediaSource());
+        MediaSource mediaSource = playerMediaSourceInterface.getMediaSource();
+
+        // next playlist items will be appended to it
+        if (playlist != null && isGapless(media)) {
+            playlistSource = new ConcatenatingMediaSource(mediaSource);
+            playlistItems.add(new PlaylistItem(media, playerMediaSourceInterface));
+            _playlistBaseIndex = _playlistIndex;
+            mediaSource = playlistSource;
+        }
+
+        player.prepare(mediaSource);
         player.getPlaybackState();
         // player.setRepeatMode(Player.REPEAT_MODE_OFF);
 
@@ -1001,10 +1130,10 @@ public class SambaPlayer /*extends FrameLayout*/ {
             //if (!_enableControls)
             //player.disableControls();
 
-//            PluginManager.getInstance().onInternalPlayerCreated(simplePlayerView.getPlayerView());
+//            pluginManager.onInternalPlayerCreated(simplePlayerView.getPlayerView());
 
             if (notify)
-                SambaEventBus.post(new SambaEvent(SambaPlayerListener.EventType.LOAD, this));
+                eventBus.post(new SambaEvent(SambaPlayerListener.EventType.LOAD, this));
         }
 
         if (media.isAudioOnly) {
@@ -1031,6 +1160,164 @@ public class SambaPlayer /*extends FrameLayout*/ {
     }
 
 
+    private PlayerMediaSourceInterface createMediaSource(@NonNull SambaMediaConfig media) {
+        if (media.url.toLowerCase().endsWith(".mp3"))
+            media.type = "progressive";
+
+        String url = media.isOffline ? media.downloadUrl : media.url;
+        switch (media.type.toLowerCase()) {
+            case "hls":
+                if(media.clientId == 3170) {
+                    return new PlayerMediaSourceHLS(playerInstanceDefault, url, true, media.isLive);
+                } else {
+                    return new PlayerMediaSourceHLS(playerInstanceDefault, url, false, media.isLive);
+                }
+            case "dash":
+                return new PlayerMediaSourceDash(playerInstanceDefault, url);
+            default:
+                return new PlayerMediaSourceExtractor(playerInstanceDefault, url);
+        }
+    }
+
+    /**
+     * Whether a media may share the player (and its DRM session) with the other playlist items.
+     */
+    private static boolean isGapless(@NonNull SambaMediaConfig media) {
+        return !media.isLive && media.drmRequest == null;
+    }
+
+    private void loadPlaylistItem(final int index) {
+        final SambaPlaylist playlist = this.playlist;
+
+        playlist.resolve(index, new SambaApiCallback() {
+            @Override
+            public void onMediaResponse(SambaMedia media) {
+                if (SambaPlayer.this.playlist != playlist)
+                    return;
+
+                _playlistIndex = index;
+                load(media);
+                play();
+            }
+
+            @Override
+            public void onMediaResponseError(Exception e, SambaMediaRequest request) {
+                if (SambaPlayer.this.playlist != playlist)
+                    return;
+
+                dispatchError(SambaPlayerError.unknown.setValues(SambaPlayerError.unknown.getCode(),
+                        "Ocorreu um erro! Por favor, tente mais tarde...", SambaPlayerError.Severity.critical, e));
+            }
+        });
+    }
+
+    /**
+     * Resolves the next playlist item and appends it to the current media source, so it gets buffered ahead.
+     */
+    private void preloadNextItem() {
+        final int index = _playlistBaseIndex + playlistItems.size();
+
+        if (playlistSource == null || index != _playlistIndex + 1 || index >= playlist.size())
+            return;
+
+        final ConcatenatingMediaSource source = playlistSource;
+
+        playlist.resolve(index, new SambaApiCallback() {
+            @Override
+            public void onMediaResponse(SambaMedia media) {
+                SambaMediaConfig m = new SambaMediaConfig(media);
+
+                // otherwise loaded when the current item finishes
+                if (playlistSource != source || !isGapless(m))
+                    return;
+
+                PlaylistItem item = new PlaylistItem(m, createMediaSource(m));
+
+                playlistItems.add(item);
+                playlistSource.addMediaSource(item.source.getMediaSource());
+            }
+        });
+    }
+
+    /**
+     * Switches to a preloaded playlist item, already being played by the internal player.
+     *
+     * @param window Item window index
+     */
+    private void startPlaylistItem(int window) {
+        PlaylistItem item = playlistItems.get(window);
+
+        if (!_hasFinished)
+            eventBus.post(new SambaEvent(SambaPlayerListener.EventType.FINISH));
+
+        pluginManager.onDestroy();
+        eventBus.clearStickyEvents();
+
+        media = item.media;
+        playerMediaSourceInterface = item.source;
+        _playlistIndex = _playlistBaseIndex + window;
+        _initialTime = 0;
+        _hasFinished = false;
+
+        pluginManager.onLoad(this);
+        eventBus.post(new SambaEvent(SambaPlayerListener.EventType.LOAD, this));
+
+        _hasStarted = true;
+        eventBus.post(new SambaEvent(SambaPlayerListener.EventType.START));
+        preloadNextItem();
+    }
+
+    /**
+     * Keeps the playback state (position, output and caption) and destroys the internal player,
+     * so it can be rebuilt by `create`.
+     */
+    private void destroyForRecovery() {
+        if (player != null) {
+            if (_initialTime == 0f)
+                _initialTime = getCurrentTime();
+
+            _currentOutputIndex = playerMediaSourceInterface.getCurrentOutputTrackIndex(player.getCurrentTrackSelections(), _abrEnabled);
+            _currentCaptionIndex = playerMediaSourceInterface.getCurrentCaptionTrackIndex(player.getCurrentTrackSelections());
+
+            if (_currentCaptionIndex >= 0) _forceCaptionIndexTo = _currentCaptionIndex;
+            if (_currentOutputIndex >= 0) _forceOutputIndexTo = _currentOutputIndex;
+        }
+
+//        _initialFullscreen = simplePlayerView.isFullscreen();
+
+        destroyInternal();
+    }
+
+    /**
+     * Re-prepares the internal player after an error, keeping its renderers, surfaces, DRM session and bandwidth estimate.
+     *
+     * @param url Backup URL to switch to or null to resume the current media source (from the live edge, if live)
+     */
+    private void recoverInPlace(String url) {
+        MediaSource mediaSource = playlistSource != null ? playlistSource : playerMediaSourceInterface.getMediaSource();
+        long position = player.getCurrentPosition();
+
+        startRecovery(true);
+
+        if (url == null) {
+            player.prepare(mediaSource, media.isLive, false);
+            return;
+        }
+
+        media.url = url;
+        playerMediaSourceInterface.destroy();
+        playerMediaSourceInterface = createMediaSource(media);
+        player.prepare(playerMediaSourceInterface.getMediaSource(), true, false);
+
+        if (!media.isLive)
+            player.seekTo(position);
+    }
+
+    private void startRecovery(boolean inPlace) {
+        _recoveryStart = SystemClock.elapsedRealtime();
+        _recoveryInPlace = inPlace;
+    }
+
     private void createOrientationEventListener() {
         orientationEventListener = new OrientationEventListener(context) {
 
@@ -1051,15 +1338,15 @@ public class SambaPlayer /*extends FrameLayout*/ {
                 switch (lastRotatedTo) {
                     case Orientation.PORTRAIT:
 //                        simplePlayerView.setFullscreen(false);
-                        SambaEventBus.post(new SambaEvent(SambaPlayerListener.EventType.PORTRAIT));
+                        eventBus.post(new SambaEvent(SambaPlayerListener.EventType.PORTRAIT));
                         break;
                     case Orientation.REVERSE_LANDSCAPE:
 //                        simplePlayerView.setFullscreen(true, true);
-                        SambaEventBus.post(new SambaEvent(SambaPlayerListener.EventType.LANDSCAPE));
+                        eventBus.post(new SambaEvent(SambaPlayerListener.EventType.LANDSCAPE));
                         break;
                     case Orientation.LANDSCAPE:
 //                        simplePlayerView.setFullscreen(true, false);
-                        SambaEventBus.post(new SambaEvent(SambaPlayerListener.EventType.LANDSCAPE));
+                        eventBus.post(new SambaEvent(SambaPlayerListener.EventType.LANDSCAPE));
                         break;
                     default:
                         break;
@@ -1089,10 +1376,12 @@ public class SambaPlayer /*extends FrameLayout*/ {
 //            simplePlayerView = null;
 //        }
 
-        if (playerInstanceDefault != null) {
-            playerInstanceDefault.destroy();
-            playerInstanceDefault = null;
-        }
+        for (PlaylistItem item : playlistItems)
+            if (item.source != playerMediaSourceInterface)
+                item.source.destroy();
+
+        playlistItems.clear();
+        playlistSource = null;
 
         if (playerMediaSourceInterface != null) {
             playerMediaSourceInterface.destroy();
@@ -1101,10 +1390,21 @@ public class SambaPlayer /*extends FrameLayout*/ {
 
         if (player != null) {
             player.removeListener(playerEventListener);
-            player.release();
             player = null;
         }
 
+        // unbinds the view (and its listeners) from the player, which may be reused by another SambaPlayer
+        if (playerView != null) {
+            playerView.setPlayer(null);
+            playerView = null;
+        }
+
+        // gives the player back to the pool (stopped and reset) or releases it
+        if (playerInstanceDefault != null) {
+            SambaPlayerPool.getInstance(context).release(playerInstanceDefault);
+            playerInstanceDefault = null;
+        }
+
         _hasStarted = false;
         _hasFinished = false;
         _disabled = false;
@@ -1156,47 +1456,51 @@ public class SambaPlayer /*extends FrameLayout*/ {
     }
 
     private void startProgressTimer() {
-        if (progressTimer != null)
+        if (_progressTimerRunning)
             return;
 
-        progressTimer = new Timer();
-        progressTimer.scheduleAtFixedRate(new TimerTask() {
-            @Override
-            public void run() {
-                getActivity().runOnUiThread(progressDispatcher);
-            }
-        }, 0, 250);
+        _progressTimerRunning = true;
+        handler.post(progressTask);
     }
 
     private void stopProgressTimer() {
-        if (progressTimer == null)
+        if (!_progressTimerRunning)
             return;
 
-        progressTimer.cancel();
-        progressTimer.purge();
-        progressTimer = null;
+        handler.removeCallbacks(progressTask);
+        _progressTimerRunning = false;
+    }
+
+    /**
+     * Schedules an error related task (replaces the current one).
+     * @param task Task (may reschedule itself while it is the current one)
+     * @param delayMs Delay before the first run
+     */
+    private void startErrorTimer(@NonNull Runnable task, long delayMs) {
+        stopErrorTimer();
+        errorTask = task;
+        handler.postDelayed(task, delayMs);
     }
 
     private void stopErrorTimer() {
-        if (errorTimer == null) return;
-        errorTimer.cancel();
-        errorTimer.purge();
-        errorTimer = null;
+        if (errorTask == null) return;
+        handler.removeCallbacks(errorTask);
+        errorTask = null;
     }
 
     private void dispatchPlay() {
-        SambaEventBus.post(new SambaEvent(SambaPlayerListener.EventType.PLAY));
+        eventBus.post(new SambaEvent(SambaPlayerListener.EventType.PLAY));
         startProgressTimer();
     }
 
     private void dispatchPause() {
         stopProgressTimer();
-        SambaEventBus.post(new SambaEvent(SambaPlayerListener.EventType.PAUSE));
+        eventBus.post(new SambaEvent(SambaPlayerListener.EventType.PAUSE));
     }
 
     private void dispatchError(@NonNull SambaPlayerError error) {
         // give user the chance to customize error message before showing it (in case of critical)
-        SambaEventBus.post(new SambaEvent(SambaPlayerListener.EventType.ERROR, error));
+        eventBus.post(new SambaEvent(SambaPlayerListener.EventType.ERROR, error));
 
         switch (error.getSeverity()) {
             case critical:
@@ -1213,6 +1517,74 @@ public class SambaPlayer /*extends FrameLayout*/ {
     private void setupCast() {
         if (sambaCast == null || media.isAudioOnly) return;
         sambaCast.setEventListener(castListener);
-        castPlayer = new CastPlayer(context, sambaCast);
+        castPlayer = new CastPlayer(context, sambaCast, eventBus, progressChannel);
+    }
+
+    private static class PlaylistItem {
+        final SambaMediaConfig media;
+        final PlayerMediaSourceInterface source;
+
+        PlaylistItem(SambaMediaConfig media, PlayerMediaSourceInterface source) {
+            this.media = media;
+            this.source = source;
+        }
+    }
+
+    /**
+     * Error recovery metrics, split between recoveries keeping the internal player (in place)
+     * and the ones rebuilding it. Times (ms) go from the recovery attempt until playback is ready again.
+     */
+    public static class RecoveryMetrics {
+        private long inPlace;
+        private long rebuilt;
+        private long inPlaceTime;
+        private long rebuildTime;
+
+        RecoveryMetrics() {}
+
+        RecoveryMetrics(RecoveryMetrics other) {
+            inPlace = other.inPlace;
+            rebuilt = other.rebuilt;
+            inPlaceTime = other.inPlaceTime;
+            rebuildTime = other.rebuildTime;
+        }
+
+        void onRecovered(boolean inPlace, long timeMs) {
+            if (inPlace) {
+                this.inPlace++;
+                inPlaceTime += timeMs;
+            } else {
+                rebuilt++;
+                rebuildTime += timeMs;
+            }
+        }
+
+        /**
+         * Recoveries keeping the internal player.
+         */
+        public long getInPlaceRecoveries() {
+            return inPlace;
+        }
+
+        /**
+         * Recoveries rebuilding the internal player.
+         */
+        public long getRebuildRecoveries() {
+            return rebuilt;
+        }
+
+        /**
+         * Average time (ms) to recover keeping the internal player.
+         */
+        public long getAverageInPlaceTime() {
+            return inPlace > 0 ? inPlaceTime / inPlace : 0;
+        }
+
+        /**
+         * Average time (ms) to recover rebuilding the internal player.
+         */
+        public long getAverageRebuildTime() {
+            return rebuilt > 0 ? rebuildTime / rebuilt : 0;
+        }
     }
 }
@@ -0,0 +1,309 @@
+package com.sambatech.player;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+
+import com.sambatech.player.mediasource.PlayerInstanceDefault;
+import com.sambatech.player.model.SambaMediaConfig;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Keeps released player instances (the ExoPlayer with its renderers, track selector and bandwidth estimate)
+ * to be bound to the next medias, so going through a feed doesn't pay the full player initialization per item.
+ *
+ * DRM medias always get a new instance, which is released along with the media.
+ * Must be used from the main thread.
+ */
+public final class SambaPlayerPool {
+
+    private static SambaPlayerPool instance;
+
+    private final Context context;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Deque<Idle> idle = new ArrayDeque<>();
+    private final Map<PlayerInstanceDefault, Lease> leases = new IdentityHashMap<>();
+    private final Metrics metrics = new Metrics();
+    private int maxSize = 2;
+    private long maxIdleTimeMs = 60000;
+
+    private final Runnable evictor = new Runnable() {
+        @Override
+        public void run() {
+            evict();
+        }
+    };
+
+    private SambaPlayerPool(Context context) {
+        this.context = context;
+    }
+
+    public static synchronized SambaPlayerPool getInstance(@NonNull Context context) {
+        if (instance == null)
+            instance = new SambaPlayerPool(context.getApplicationContext());
+
+        return instance;
+    }
+
+    /**
+     * Defines how many idle instances are kept.
+     *
+     * @param maxSize Number of instances (default 2, 0 disables pooling)
+     */
+    public void setMaxSize(int maxSize) {
+        if (maxSize < 0)
+            throw new IllegalArgumentException("Pool size must not be negative");
+
+        this.maxSize = maxSize;
+        evict();
+    }
+
+    /**
+     * Defines how long an idle instance is kept before being released.
+     *
+     * @param maxIdleTimeMs Time (ms) (default 60s)
+     */
+    public void setMaxIdleTime(long maxIdleTimeMs) {
+        if (maxIdleTimeMs < 0)
+            throw new IllegalArgumentException("Idle time must not be negative");
+
+        this.maxIdleTimeMs = maxIdleTimeMs;
+        evict();
+    }
+
+    /**
+     * Releases every idle instance (e.g. on `onTrimMemory`).
+     */
+    public void clear() {
+        while (!idle.isEmpty())
+            destroy(idle.pollFirst().instance);
+
+        handler.removeCallbacks(evictor);
+    }
+
+    /**
+     * Gets an instance bound to a media, reusing an idle one when possible.
+     *
+     * @param media The media to be played
+     * @return An instance with its player already created
+     */
+    @NonNull
+    PlayerInstanceDefault acquire(@NonNull SambaMediaConfig media) {
+        long start = SystemClock.elapsedRealtime();
+        PlayerInstanceDefault instance = null;
+
+        if (media.drmRequest == null && !idle.isEmpty()) {
+            // most recently released first, its bandwidth estimate is the freshest
+            instance = idle.pollLast().instance;
+            instance.setMedia(media);
+        }
+
+        boolean warm = instance != null;
+
+        if (!warm) {
+            instance = new PlayerInstanceDefault(context, media);
+            instance.createPlayerInstance();
+        }
+
+        long now = SystemClock.elapsedRealtime();
+
+        leases.put(instance, new Lease(warm, now));
+        metrics.onAcquire(warm, now - start);
+
+        return instance;
+    }
+
+    /**
+     * Reports the media bound to an instance has started, measuring the time since its acquisition.
+     */
+    void onStart(@NonNull PlayerInstanceDefault instance) {
+        Lease lease = leases.get(instance);
+
+        if (lease == null || lease.started)
+            return;
+
+        lease.started = true;
+        metrics.onStart(lease.warm, SystemClock.elapsedRealtime() - lease.acquiredAt);
+    }
+
+    /**
+     * Gives an instance back, keeping it for reuse or releasing it.
+     * Media sources bound to it must have been destroyed and its listeners removed.
+     */
+    void release(@NonNull PlayerInstanceDefault instance) {
+        leases.remove(instance);
+
+        if (!instance.isReusable() || maxSize == 0 || instance.getPlayer() == null) {
+            destroy(instance);
+            return;
+        }
+
+        instance.reset();
+        idle.addLast(new Idle(instance, SystemClock.elapsedRealtime()));
+        evict();
+    }
+
+    /**
+     * Acquisition metrics (snapshot).
+     */
+    @NonNull
+    public Metrics getMetrics() {
+        return new Metrics(metrics);
+    }
+
+    private void evict() {
+        long now = SystemClock.elapsedRealtime();
+
+        while (idle.size() > maxSize)
+            destroy(idle.pollFirst().instance);
+
+        for (Iterator<Idle> it = idle.iterator(); it.hasNext(); ) {
+            Idle entry = it.next();
+
+            if (now - entry.releasedAt >= maxIdleTimeMs) {
+                it.remove();
+                destroy(entry.instance);
+            }
+        }
+
+        handler.removeCallbacks(evictor);
+
+        // the oldest one expires first
+        if (!idle.isEmpty())
+            handler.postDelayed(evictor, idle.peekFirst().releasedAt + maxIdleTimeMs - now);
+    }
+
+    private void destroy(PlayerInstanceDefault instance) {
+        if (instance.getPlayer() != null)
+            instance.getPlayer().release();
+
+        instance.destroy();
+        metrics.evicted++;
+    }
+
+    private static class Idle {
+        final PlayerInstanceDefault instance;
+        final long releasedAt;
+
+        Idle(PlayerInstanceDefault instance, long releasedAt) {
+            this.instance = instance;
+            this.releasedAt = releasedAt;
+        }
+    }
+
+    private static class Lease {
+        final boolean warm;
+        final long acquiredAt;
+        boolean started;
+
+        Lease(boolean warm, long acquiredAt) {
+            this.warm = warm;
+            this.acquiredAt = acquiredAt;
+        }
+    }
+
+    /**
+     * Acquisition metrics, split between reused (warm) and new (cold) instances.
+     */
+    public static class Metrics {
+        private long warm;
+        private long cold;
+        private long evicted;
+        private long warmAcquireTime;
+        private long coldAcquireTime;
+        private long warmStarts;
+        private long coldStarts;
+        private long warmStartTime;
+        private long coldStartTime;
+
+        Metrics() {}
+
+        Metrics(Metrics other) {
+            warm = other.warm;
+            cold = other.cold;
+            evicted = other.evicted;
+            warmAcquireTime = other.warmAcquireTime;
+            coldAcquireTime = other.coldAcquireTime;
+            warmStarts = other.warmStarts;
+            coldStarts = other.coldStarts;
+            warmStartTime = other.warmStartTime;
+            coldStartTime = other.coldStartTime;
+        }
+
+        void onAcquire(boolean warm, long timeMs) {
+            if (warm) {
+                this.warm++;
+                warmAcquireTime += timeMs;
+            } else {
+                cold++;
+                coldAcquireTime += timeMs;
+            }
+        }
+
+        void onStart(boolean warm, long timeMs) {
+            if (warm) {
+                warmStarts++;
+                warmStartTime += timeMs;
+            } else {
+                coldStarts++;
+                coldStartTime += timeMs;
+            }
+        }
+
+        /**
+         * Acquisitions served by an idle instance.
+         */
+        public long getWarmAcquisitions() {
+            return warm;
+        }
+
+        /**
+         * Acquisitions that created a new instance.
+         */
+        public long getColdAcquisitions() {
+            return cold;
+        }
+
+        /**
+         * Instances released, whether idle for too long, exceeding the pool size or not reusable.
+         */
+        public long getEvicted() {
+            return evicted;
+        }
+
+        /**
+         * Average time (ms) to acquire an idle instance.
+         */
+        public long getAverageWarmAcquireTime() {
+            return warm > 0 ? warmAcquireTime / warm : 0;
+        }
+
+        /**
+         * Average time (ms) to create a new instance.
+         */
+        public long getAverageColdAcquireTime() {
+            return cold > 0 ? coldAcquireTime / cold : 0;
+        }
+
+        /**
+         * Average time (ms) from acquiring an idle instance until its media starts.
+         */
+        public long getAverageWarmStartTime() {
+            return warmStarts > 0 ? warmStartTime / warmStarts : 0;
+        }
+
+        /**
+         * Average time (ms) from creating an instance until its media starts.
+         */
+        public long getAverageColdStartTime() {
+            return coldStarts > 0 ? coldStartTime / coldStarts : 0;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.sambatech.player;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.sambatech.player.api.SambaRequestHandle;
+import com.sambatech.player.event.SambaApiCallback;
+import com.sambatech.player.model.SambaMedia;
+import com.sambatech.player.model.SambaMediaRequest;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * A sequence of medias to be played by `SambaPlayer.setPlaylist`.
+ *
+ * Items may be given as media requests, resolved only when the player gets near them
+ * (the current item is playing and the item is next).
+ */
+public final class SambaPlaylist {
+
+    private static final Executor mainExecutor = new Executor() {
+        private final Handler handler = new Handler(Looper.getMainLooper());
+
+        @Override
+        public void execute(@NonNull Runnable command) {
+            handler.post(command);
+        }
+    };
+
+    private final SambaMedia[] medias;
+    private final SambaMediaRequest[] requests;
+    private final SambaApi api;
+    // the player is driven from the main thread, whatever the api callback executor
+    private final Executor callbackExecutor;
+    private SambaRequestHandle handle;
+
+    /**
+     * @param medias Medias already resolved
+     */
+    public SambaPlaylist(@NonNull List<SambaMedia> medias) {
+        this.medias = medias.toArray(new SambaMedia[0]);
+        this.requests = new SambaMediaRequest[this.medias.length];
+        this.api = null;
+        this.callbackExecutor = mainExecutor;
+    }
+
+    /**
+     * @param api API used to resolve the items
+     * @param requests Media requests, resolved on demand
+     */
+    public SambaPlaylist(@NonNull SambaApi api, @NonNull List<SambaMediaRequest> requests) {
+        this(api, requests, mainExecutor);
+    }
+
+    /**
+     * @param api API used to resolve the items
+     * @param requests Media requests, resolved on demand
+     * @param callbackExecutor Executor for the resolution callbacks (main thread by default)
+     */
+    SambaPlaylist(@NonNull SambaApi api, @NonNull List<SambaMediaRequest> requests, @NonNull Executor callbackExecutor) {
+        this.requests = requests.toArray(new SambaMediaRequest[0]);
+        this.medias = new SambaMedia[this.requests.length];
+        this.api = api;
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    /**
+     * Number of items.
+     */
+    public int size() {
+        return medias.length;
+    }
+
+    /**
+     * Retrieves an item.
+     *
+     * @param index Item index
+     * @return The media or null if not resolved yet
+     */
+    public @Nullable
+    SambaMedia getMedia(int index) {
+        return medias[index];
+    }
+
+    /**
+     * Resolves an item, requesting it if needed (only one request is kept pending).
+     * Must be called on the main thread.
+     *
+     * @param index Item index
+     * @param callback Listener for the media (always posted to the main thread, even if already resolved)
+     */
+    void resolve(final int index, @NonNull final SambaApiCallback callback) {
+        if (medias[index] != null) {
+            final SambaMedia media = medias[index];
+
+            callbackExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    callback.onMediaResponse(media);
+                }
+            });
+            return;
+        }
+
+        cancel();
+
+        final SambaRequestHandle[] current = new SambaRequestHandle[1];
+
+        // the api may deliver on any thread (see `SambaApi.setCallbackExecutor`)
+        current[0] = handle = api.requestMedia(requests[index], new SambaApiCallback() {
+            @Override
+            public void onMediaResponse(final SambaMedia media) {
+                callbackExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        // cancelled after delivery
+                        if (handle != current[0])
+                            return;
+
+                        handle = null;
+                        medias[index] = media;
+                        callback.onMediaResponse(media);
+                    }
+                });
+            }
+
+            @Override
+            public void onMediaResponseError(final Exception e, final SambaMediaRequest request) {
+                callbackExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (handle != current[0])
+                            return;
+
+                        handle = null;
+                        callback.onMediaResponseError(e, request);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Cancels the pending request, if any.
+     */
+    void cancel() {
+        if (handle == null)
+            return;
+
+        handle.cancel();
+        handle = null;
+    }
+}
@@ -0,0 +1,327 @@
+package com.sambatech.player;
+
+import android.content.Context;
+import android.net.Uri;
+import android.support.annotation.NonNull;
+import android.util.Log;
+
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.source.hls.playlist.HlsMasterPlaylist;
+import com.google.android.exoplayer2.source.hls.playlist.HlsMediaPlaylist;
+import com.google.android.exoplayer2.source.hls.playlist.HlsPlaylist;
+import com.google.android.exoplayer2.source.hls.playlist.HlsPlaylistParser;
+import com.google.android.exoplayer2.upstream.DataSource;
+import com.google.android.exoplayer2.upstream.DataSourceInputStream;
+import com.google.android.exoplayer2.upstream.DataSpec;
+import com.google.android.exoplayer2.upstream.DefaultHttpDataSourceFactory;
+import com.google.android.exoplayer2.upstream.FileDataSourceFactory;
+import com.google.android.exoplayer2.upstream.cache.Cache;
+import com.google.android.exoplayer2.upstream.cache.CacheDataSource;
+import com.google.android.exoplayer2.upstream.cache.CacheDataSourceFactory;
+import com.google.android.exoplayer2.upstream.cache.CacheUtil;
+import com.google.android.exoplayer2.upstream.cache.LeastRecentlyUsedCacheEvictor;
+import com.google.android.exoplayer2.upstream.cache.SimpleCache;
+import com.google.android.exoplayer2.util.UriUtil;
+import com.google.android.exoplayer2.util.Util;
+import com.sambatech.player.api.SambaRequestHandle;
+import com.sambatech.player.event.SambaApiCallback;
+import com.sambatech.player.model.SambaMedia;
+import com.sambatech.player.model.SambaMediaRequest;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Warms up medias the user is likely to play next.
+ *
+ * Resolves the media metadata (kept by the media cache) and stores the manifest and the first seconds
+ * of the initial rendition into a bounded (LRU) cache the player reads from.
+ * Only on demand medias are prefetched; DASH medias have only their manifest prefetched.
+ *
+ * Metadata goes through the request engine at PREFETCH priority, while media bytes are downloaded one media
+ * at a time by a dedicated low priority thread, never holding the engine's slots.
+ * The cache is only created once something is prefetched.
+ */
+public final class SambaPrefetcher {
+
+    private static final String DIRECTORY = "samba_prefetch";
+    private static final long CACHE_SIZE = 64 * 1024 * 1024;
+    private static final long PROGRESSIVE_BYTES = 1024 * 1024;
+    // ABR picks the initial rendition under this fraction of the default bandwidth estimate (1 Mbps)
+    private static final int INITIAL_BITRATE = 750000;
+    private static final long KEEP_ALIVE_SECS = 30;
+
+    private static SambaPrefetcher instance;
+
+    private final Context context;
+    private final SambaApi api;
+    private final List<SambaRequestHandle> handles = new ArrayList<>();
+    private final List<Warmup> warmups = new ArrayList<>();
+    private final ThreadPoolExecutor warmupExecutor;
+    private Cache cache;
+    private volatile boolean isActive;
+    private volatile long prefetchDurationMs = 10000;
+
+    private SambaPrefetcher(Context context) {
+        this.context = context;
+        this.api = new SambaApi(context, null);
+
+        warmupExecutor = new ThreadPoolExecutor(1, 1, KEEP_ALIVE_SECS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+            @Override
+            public Thread newThread(@NonNull Runnable r) {
+                Thread thread = new Thread(r, "SambaPrefetch");
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            }
+        });
+
+        warmupExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    public static synchronized SambaPrefetcher getInstance(@NonNull Context context) {
+        if (instance == null)
+            instance = new SambaPrefetcher(context.getApplicationContext());
+
+        return instance;
+    }
+
+    /**
+     * Defines how much of the media is prefetched.
+     *
+     * @param prefetchDurationMs Duration (ms) of the initial segments to be prefetched (default 10s)
+     */
+    public void setPrefetchDuration(long prefetchDurationMs) {
+        if (prefetchDurationMs < 0)
+            throw new IllegalArgumentException("Prefetch duration must not be negative");
+
+        this.prefetchDurationMs = prefetchDurationMs;
+    }
+
+    /**
+     * Prefetches a media.
+     *
+     * @param request Request data
+     */
+    public void prefetch(@NonNull SambaMediaRequest request) {
+        request = new SambaMediaRequest(request);
+        request.priority = SambaMediaRequest.Priority.PREFETCH;
+        isActive = true;
+
+        track(api.requestMedia(request, new SambaApiCallback() {
+            @Override
+            public void onMediaResponse(SambaMedia media) {
+                if (media.isLive || media.url == null || media.url.isEmpty())
+                    return;
+
+                String type = media.url.toLowerCase().endsWith(".mp3") ? "progressive" : media.type.toLowerCase();
+                Warmup warmup = new Warmup(media.url, type);
+
+                synchronized (warmups) {
+                    for (Iterator<Warmup> it = warmups.iterator(); it.hasNext();)
+                        if (it.next().isDone)
+                            it.remove();
+
+                    warmups.add(warmup);
+                }
+
+                warmupExecutor.execute(warmup);
+            }
+        }));
+    }
+
+    /**
+     * Prefetches several medias.
+     *
+     * @param requests Several request data (in order of likelihood)
+     */
+    public void prefetch(@NonNull SambaMediaRequest[] requests) {
+        for (SambaMediaRequest request : requests)
+            prefetch(request);
+    }
+
+    /**
+     * Cancels every pending prefetch.
+     */
+    public void cancelAll() {
+        synchronized (handles) {
+            for (SambaRequestHandle handle : handles)
+                handle.cancel();
+
+            handles.clear();
+        }
+
+        synchronized (warmups) {
+            // also interrupts the download in progress
+            for (Warmup warmup : warmups)
+                warmup.isCancelled.set(true);
+
+            warmups.clear();
+        }
+    }
+
+    /**
+     * Builds a data source factory that serves prefetched content and falls back to the given one.
+     * The prefetch cache is never written while playing.
+     *
+     * @param upstreamFactory Factory for non prefetched content
+     * @return The given factory itself while nothing has been prefetched
+     */
+    @NonNull
+    public DataSource.Factory buildDataSourceFactory(@NonNull DataSource.Factory upstreamFactory) {
+        if (!isActive)
+            return upstreamFactory;
+
+        return new CacheDataSourceFactory(getCache(), upstreamFactory, new FileDataSourceFactory(), null,
+                CacheDataSource.FLAG_IGNORE_CACHE_ON_ERROR, null);
+    }
+
+    private synchronized Cache getCache() {
+        if (cache == null)
+            cache = new SimpleCache(new File(context.getCacheDir(), DIRECTORY), new LeastRecentlyUsedCacheEvictor(CACHE_SIZE));
+
+        return cache;
+    }
+
+    private void track(SambaRequestHandle handle) {
+        synchronized (handles) {
+            for (Iterator<SambaRequestHandle> it = handles.iterator(); it.hasNext();)
+                if (it.next().isDone())
+                    it.remove();
+
+            handles.add(handle);
+        }
+    }
+
+    private void warm(Warmup warmup, String url, String type) {
+        DataSource upstream = new DefaultHttpDataSourceFactory(Util.getUserAgent(context, "SambaPlayer")).createDataSource();
+        Uri uri = Uri.parse(url);
+
+        try {
+            switch (type) {
+                case "hls":
+                    warmHls(warmup, upstream, uri);
+                    break;
+
+                case "dash":
+                    store(warmup, upstream, new DataSpec(uri));
+                    break;
+
+                default:
+                    store(warmup, upstream, new DataSpec(uri, 0, PROGRESSIVE_BYTES, null));
+            }
+        } catch (InterruptedException e) {
+            // cancelled
+        } catch (Exception e) {
+            Log.w(getClass().getSimpleName(), "Error prefetching " + url, e);
+        }
+    }
+
+    private void warmHls(Warmup warmup, DataSource upstream, Uri uri) throws IOException, InterruptedException {
+        HlsPlaylist playlist = load(warmup, upstream, uri);
+
+        if (playlist instanceof HlsMasterPlaylist) {
+            HlsMasterPlaylist.HlsUrl variant = pickVariant((HlsMasterPlaylist) playlist);
+
+            if (variant == null || warmup.isCancelled.get())
+                return;
+
+            playlist = load(warmup, upstream, UriUtil.resolveToUri(playlist.baseUri, variant.url));
+        }
+
+        if (!(playlist instanceof HlsMediaPlaylist))
+            return;
+
+        long durationUs = 0;
+
+        for (HlsMediaPlaylist.Segment segment : ((HlsMediaPlaylist) playlist).segments) {
+            if (warmup.isCancelled.get() || durationUs >= prefetchDurationMs * 1000)
+                return;
+
+            Uri segmentUri = UriUtil.resolveToUri(playlist.baseUri, segment.url);
+
+            store(warmup, upstream, segment.byterangeLength != C.LENGTH_UNSET ?
+                    new DataSpec(segmentUri, segment.byterangeOffset, segment.byterangeLength, null) :
+                    new DataSpec(segmentUri));
+
+            durationUs += segment.durationUs;
+        }
+    }
+
+    /**
+     * Picks the variant adaptive track selection would most likely start with.
+     */
+    private HlsMasterPlaylist.HlsUrl pickVariant(HlsMasterPlaylist playlist) {
+        HlsMasterPlaylist.HlsUrl best = null;
+        HlsMasterPlaylist.HlsUrl lowest = null;
+
+        for (HlsMasterPlaylist.HlsUrl variant : playlist.variants) {
+            int bitrate = variant.format.bitrate;
+
+            if (lowest == null || bitrate < lowest.format.bitrate)
+                lowest = variant;
+
+            if (bitrate <= INITIAL_BITRATE && (best == null || bitrate > best.format.bitrate))
+                best = variant;
+        }
+
+        return best != null ? best : lowest;
+    }
+
+    /**
+     * Stores a playlist into the cache and parses it.
+     */
+    private HlsPlaylist load(Warmup warmup, DataSource upstream, Uri uri) throws IOException, InterruptedException {
+        DataSpec dataSpec = new DataSpec(uri);
+
+        store(warmup, upstream, dataSpec);
+
+        DataSourceInputStream inputStream = new DataSourceInputStream(new CacheDataSource(getCache(), upstream), dataSpec);
+
+        try {
+            return new HlsPlaylistParser().parse(uri, inputStream);
+        } finally {
+            inputStream.close();
+        }
+    }
+
+    /**
+     * Downloads content into the cache (throws `InterruptedException` once the warmup is cancelled).
+     */
+    private void store(Warmup warmup, DataSource upstream, DataSpec dataSpec) throws IOException, InterruptedException {
+        CacheUtil.cache(dataSpec, getCache(), upstream, null, warmup.isCancelled);
+    }
+
+    /**
+     * Download of a media's initial content (cancellable until done).
+     */
+    private class Warmup implements Runnable {
+        private final String url;
+        private final String type;
+        private final AtomicBoolean isCancelled = new AtomicBoolean();
+        private volatile boolean isDone;
+
+        Warmup(String url, String type) {
+            this.url = url;
+            this.type = type;
+        }
+
+        @Override
+        public void run() {
+            try {
+                if (!isCancelled.get())
+                    warm(this, url, type);
+            } finally {
+                isDone = true;
+            }
+        }
+    }
+}
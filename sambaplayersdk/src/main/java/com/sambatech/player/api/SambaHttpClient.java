@@ -0,0 +1,514 @@
+package com.sambatech.player.api;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.v4.util.LruCache;
+import android.util.Log;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * HTTP client shared by every SDK control-plane request (media API, tracking, captions).
+ *
+ * Connections are kept alive and reused by the platform pool as long as response bodies are fully
+ * read and closed (connections are never disconnected explicitly); gzip is negotiated and decoded
+ * transparently by the platform. Successful GET responses carrying ETag or Last-Modified are kept in
+ * a small memory cache and revalidated with conditional requests.
+ */
+public final class SambaHttpClient {
+
+    private static final int DEFAULT_CONNECT_TIMEOUT = 10000;
+    private static final int DEFAULT_READ_TIMEOUT = 15000;
+    private static final int VALIDATED_CACHE_SIZE = 1024 * 1024;
+    private static final int BUFFER_SIZE = 4096;
+
+    private static final SambaHttpClient instance = new SambaHttpClient();
+
+    private final LruCache<String, Validated> validated = new LruCache<String, Validated>(VALIDATED_CACHE_SIZE) {
+        @Override
+        protected int sizeOf(String key, Validated value) {
+            return value.body.length;
+        }
+    };
+    private final Map<String, Metrics> metrics = new HashMap<>();
+    private volatile int connectTimeout = DEFAULT_CONNECT_TIMEOUT;
+    private volatile int readTimeout = DEFAULT_READ_TIMEOUT;
+
+    private SambaHttpClient() {}
+
+    public static SambaHttpClient getInstance() {
+        return instance;
+    }
+
+    /**
+     * Defines the connection timeouts.
+     *
+     * @param connectTimeout Time (ms) to establish a connection
+     * @param readTimeout Time (ms) to wait for data
+     */
+    public void setTimeouts(int connectTimeout, int readTimeout) {
+        if (connectTimeout < 0 || readTimeout < 0)
+            throw new IllegalArgumentException("Timeouts must not be negative");
+
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+    }
+
+    /**
+     * Opens a connection with the client settings, for callers needing to customize it.
+     *
+     * @param url The URL
+     * @return The connection (not yet connected)
+     */
+    @NonNull
+    public HttpURLConnection openConnection(@NonNull String url) throws IOException {
+        HttpURLConnection con = (HttpURLConnection) new URL(url).openConnection();
+
+        con.setConnectTimeout(connectTimeout);
+        con.setReadTimeout(readTimeout);
+
+        return con;
+    }
+
+    /**
+     * Executes a conditional GET and streams the response body (must not be called on the main thread).
+     *
+     * @param url The URL
+     * @param headers Request headers (optional)
+     * @return The response body, the caller is responsible for closing it
+     * @throws IOException On network failure or unsuccessful response
+     */
+    @NonNull
+    public InputStream open(@NonNull String url, @Nullable Map<String, String> headers) throws IOException {
+        HttpURLConnection con = openConnection(url);
+
+        if (headers != null)
+            for (Map.Entry<String, String> kv : headers.entrySet())
+                con.setRequestProperty(kv.getKey(), kv.getValue());
+
+        return open(con);
+    }
+
+    /**
+     * Executes a conditional GET on a custom connection and reads the whole response body (must not be called on the main thread).
+     *
+     * @param con The connection (not yet connected)
+     * @return The response
+     * @throws IOException On network failure
+     */
+    @NonNull
+    public Response execute(@NonNull HttpURLConnection con) throws IOException {
+        InputStream inputStream = null;
+
+        try {
+            inputStream = open(con);
+            return new Response(HttpURLConnection.HTTP_OK, new String(readFully(inputStream), "UTF-8"));
+        } catch (HttpException e) {
+            return new Response(e.code, null);
+        } finally {
+            if (inputStream != null)
+                inputStream.close();
+        }
+    }
+
+    /**
+     * Executes a conditional GET and reads the whole response body (must not be called on the main thread).
+     *
+     * @param url The URL
+     * @param headers Request headers (optional)
+     * @return The response
+     * @throws IOException On network failure
+     */
+    @NonNull
+    public Response get(@NonNull String url, @Nullable Map<String, String> headers) throws IOException {
+        HttpURLConnection con = openConnection(url);
+
+        if (headers != null)
+            for (Map.Entry<String, String> kv : headers.entrySet())
+                con.setRequestProperty(kv.getKey(), kv.getValue());
+
+        return execute(con);
+    }
+
+    /**
+     * Executes a GET whose body is irrelevant, e.g. tracking beacons (must not be called on the main thread).
+     * The body is drained so the connection can be reused.
+     *
+     * @param url The URL
+     * @param headers Request headers (optional)
+     * @return The response status code
+     * @throws IOException On network failure
+     */
+    public int send(@NonNull String url, @Nullable Map<String, String> headers) throws IOException {
+        HttpURLConnection con = openConnection(url);
+
+        if (headers != null)
+            for (Map.Entry<String, String> kv : headers.entrySet())
+                con.setRequestProperty(kv.getKey(), kv.getValue());
+
+        Metrics metrics = getMetrics(con.getURL());
+        long time = System.currentTimeMillis();
+        int code;
+
+        try {
+            code = con.getResponseCode();
+        } catch (IOException e) {
+            metrics.addFailure();
+            throw e;
+        }
+
+        InputStream inputStream = code < 400 ? con.getInputStream() : con.getErrorStream();
+        long bytes = 0;
+
+        if (inputStream != null) {
+            try {
+                bytes = readFully(inputStream).length;
+            } finally {
+                inputStream.close();
+            }
+        }
+
+        metrics.addResponse(code, System.currentTimeMillis() - time, bytes);
+
+        return code;
+    }
+
+    /**
+     * Retrieves a snapshot of the request metrics, keyed by endpoint (host).
+     */
+    @NonNull
+    public synchronized Map<String, Metrics> getMetrics() {
+        Map<String, Metrics> snapshot = new HashMap<>();
+
+        for (Map.Entry<String, Metrics> kv : metrics.entrySet())
+            snapshot.put(kv.getKey(), new Metrics(kv.getValue()));
+
+        return snapshot;
+    }
+
+    /**
+     * Clears the conditional request cache.
+     */
+    public void clearCache() {
+        validated.evictAll();
+    }
+
+    /**
+     * Executes a conditional GET on a connection and streams the response body.
+     */
+    InputStream open(HttpURLConnection con) throws IOException {
+        String key = con.getURL().toString();
+        Validated cached = validated.get(key);
+        Metrics metrics = getMetrics(con.getURL());
+
+        if (cached != null) {
+            if (cached.etag != null)
+                con.setRequestProperty("If-None-Match", cached.etag);
+
+            if (cached.lastModified != null)
+                con.setRequestProperty("If-Modified-Since", cached.lastModified);
+        }
+
+        long time = System.currentTimeMillis();
+        int code;
+
+        try {
+            code = con.getResponseCode();
+        } catch (IOException e) {
+            metrics.addFailure();
+            throw e;
+        }
+
+        long latency = System.currentTimeMillis() - time;
+
+        if (code == HttpURLConnection.HTTP_NOT_MODIFIED && cached != null) {
+            con.getInputStream().close();
+            metrics.addResponse(code, latency, 0);
+            return new ByteArrayInputStream(cached.body);
+        }
+
+        if (code < 200 || code >= 300) {
+            InputStream errorStream = con.getErrorStream();
+
+            if (errorStream != null) {
+                try {
+                    readFully(errorStream);
+                } catch (IOException e) {
+                    Log.w(getClass().getSimpleName(), "Error draining response", e);
+                } finally {
+                    errorStream.close();
+                }
+            }
+
+            metrics.addResponse(code, latency, 0);
+            throw new HttpException(code);
+        }
+
+        metrics.addResponse(code, latency, 0);
+
+        String etag = con.getHeaderField("ETag");
+        String lastModified = con.getHeaderField("Last-Modified");
+
+        return new ResponseInputStream(con.getInputStream(), metrics,
+                etag != null || lastModified != null ? new Validated(key, etag, lastModified) : null);
+    }
+
+    private synchronized Metrics getMetrics(URL url) {
+        String endpoint = url.getHost();
+        Metrics m = metrics.get(endpoint);
+
+        if (m == null) {
+            m = new Metrics();
+            metrics.put(endpoint, m);
+        }
+
+        return m;
+    }
+
+    private static byte[] readFully(InputStream inputStream) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int n;
+
+        while ((n = inputStream.read(buffer)) != -1)
+            out.write(buffer, 0, n);
+
+        return out.toByteArray();
+    }
+
+    /**
+     * Request result.
+     */
+    public static class Response {
+        public final int code;
+        public final String body;
+
+        Response(int code, String body) {
+            this.code = code;
+            this.body = body;
+        }
+
+        public boolean isSuccessful() {
+            return code >= 200 && code < 300;
+        }
+    }
+
+    /**
+     * Request metrics of an endpoint.
+     */
+    public static class Metrics {
+        private long requests;
+        private long failures;
+        private long notModified;
+        private long bytes;
+        private long totalLatency;
+
+        Metrics() {}
+
+        Metrics(Metrics other) {
+            synchronized (other) {
+                requests = other.requests;
+                failures = other.failures;
+                notModified = other.notModified;
+                bytes = other.bytes;
+                totalLatency = other.totalLatency;
+            }
+        }
+
+        /**
+         * Total number of requests.
+         */
+        public long getRequests() {
+            return requests;
+        }
+
+        /**
+         * Requests failed by network errors or error status codes.
+         */
+        public long getFailures() {
+            return failures;
+        }
+
+        /**
+         * Requests answered from the conditional request cache.
+         */
+        public long getNotModified() {
+            return notModified;
+        }
+
+        /**
+         * Response bytes received (after decompression).
+         */
+        public long getBytes() {
+            return bytes;
+        }
+
+        /**
+         * Average time (ms) until the response headers.
+         */
+        public long getAverageLatency() {
+            long responses = requests - failures;
+            return responses > 0 ? totalLatency / responses : 0;
+        }
+
+        synchronized void addResponse(int code, long latency, long bytes) {
+            ++requests;
+            totalLatency += latency;
+            this.bytes += bytes;
+
+            if (code == HttpURLConnection.HTTP_NOT_MODIFIED)
+                ++notModified;
+            else if (code >= 400) {
+                ++failures;
+                totalLatency -= latency;
+            }
+        }
+
+        synchronized void addBytes(long bytes) {
+            this.bytes += bytes;
+        }
+
+        synchronized void addFailure() {
+            ++requests;
+            ++failures;
+        }
+    }
+
+    /**
+     * Unsuccessful response status.
+     */
+    public static class HttpException extends IOException {
+        public final int code;
+
+        public HttpException(int code) {
+            super("HTTP error " + code);
+            this.code = code;
+        }
+    }
+
+    private static class Validated {
+        final String key;
+        final String etag;
+        final String lastModified;
+        byte[] body;
+
+        Validated(String key, String etag, String lastModified) {
+            this.key = key;
+            this.etag = etag;
+            this.lastModified = lastModified;
+        }
+    }
+
+    /**
+     * Counts the body bytes and keeps a copy for conditional requests once it is fully read.
+     * An unread tail (e.g. after a JSON value) is drained on close, up to the capture limit.
+     */
+    private final class ResponseInputStream extends FilterInputStream {
+        private final Metrics metrics;
+        private Validated validated;
+        private ByteArrayOutputStream capture;
+        private long bytes;
+        private boolean eof;
+        private boolean closed;
+
+        ResponseInputStream(InputStream in, Metrics metrics, @Nullable Validated validated) {
+            super(in);
+            this.metrics = metrics;
+            this.validated = validated;
+
+            if (validated != null)
+                capture = new ByteArrayOutputStream();
+        }
+
+        @Override
+        public int read() throws IOException {
+            int c = super.read();
+
+            if (c == -1)
+                eof = true;
+            else {
+                ++bytes;
+
+                if (capture != null)
+                    capture.write(c);
+            }
+
+            return c;
+        }
+
+        @Override
+        public int read(@NonNull byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+
+            if (n == -1)
+                eof = true;
+            else {
+                bytes += n;
+
+                if (capture != null) {
+                    capture.write(b, off, n);
+
+                    // too large to be kept
+                    if (capture.size() > VALIDATED_CACHE_SIZE / 4)
+                        capture = null;
+                }
+            }
+
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            // skipped bytes cannot be captured
+            capture = null;
+            return super.skip(n);
+        }
+
+        private void drain() {
+            byte[] buffer = new byte[BUFFER_SIZE];
+
+            try {
+                while (bytes <= VALIDATED_CACHE_SIZE / 4 && read(buffer, 0, buffer.length) != -1);
+            } catch (IOException e) {
+                capture = null;
+                Log.w(getClass().getSimpleName(), "Error draining response", e);
+            }
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed)
+                return;
+
+            closed = true;
+
+            // keeps the body and lets the connection be reused
+            if (!eof)
+                drain();
+
+            try {
+                super.close();
+            } finally {
+                metrics.addBytes(bytes);
+
+                if (eof && capture != null) {
+                    validated.body = capture.toByteArray();
+                    SambaHttpClient.this.validated.put(validated.key, validated);
+                }
+            }
+        }
+    }
+}
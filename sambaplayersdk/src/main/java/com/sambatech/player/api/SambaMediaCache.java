@@ -0,0 +1,355 @@
+package com.sambatech.player.api;
+
+import android.content.Context;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.Log;
+import android.util.LruCache;
+
+import com.google.gson.Gson;
+import com.sambatech.player.model.AdsSettings;
+import com.sambatech.player.model.SambaMedia;
+import com.sambatech.player.model.SambaMediaConfig;
+import com.sambatech.player.model.SambaMediaRequest;
+import com.sambatech.player.plugins.DrmRequest;
+import com.sambatech.player.utils.Helpers;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Memory (LRU) and disk cache for parsed media responses, keyed by {@link SambaMediaRequest#getKey()}.
+ *
+ * Entries younger than the fresh TTL are served without touching the network;
+ * entries older than it (but younger than the stale TTL) are served while being revalidated.
+ *
+ * DRM medias are kept in memory only and never served stale: their license tokens must not be
+ * written to disk and would fail license acquisition once expired.
+ */
+public final class SambaMediaCache {
+
+    private static final String DIRECTORY = "samba_media";
+    private static final int MEMORY_ENTRIES = 64;
+    private static final int DISK_ENTRIES = 256;
+
+    private static SambaMediaCache instance;
+
+    private final LruCache<String, Entry> memory = new LruCache<>(MEMORY_ENTRIES);
+    private final File directory;
+    private final Gson gson = new Gson();
+    private volatile boolean enabled = true;
+    private volatile long freshTtl = 5 * 60 * 1000;
+    private volatile long staleTtl = 60 * 60 * 1000;
+
+    private SambaMediaCache(Context context) {
+        directory = new File(context.getCacheDir(), DIRECTORY);
+    }
+
+    public static synchronized SambaMediaCache getInstance(@NonNull Context context) {
+        if (instance == null)
+            instance = new SambaMediaCache(context.getApplicationContext());
+
+        return instance;
+    }
+
+    /**
+     * Enables or disables the cache (enabled by default).
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Defines how long the entries live.
+     *
+     * @param freshTtl Time (ms) an entry is served without revalidation
+     * @param staleTtl Time (ms) an entry may still be served while being revalidated
+     */
+    public void setTtl(long freshTtl, long staleTtl) {
+        if (freshTtl < 0 || staleTtl < freshTtl)
+            throw new IllegalArgumentException("Stale TTL must be greater than or equal to fresh TTL");
+
+        this.freshTtl = freshTtl;
+        this.staleTtl = staleTtl;
+    }
+
+    /**
+     * Looks up a media in memory.
+     *
+     * @param request The media request
+     * @return A copy of the cached media or null if absent or expired
+     */
+    @Nullable
+    public Result getFromMemory(@NonNull SambaMediaRequest request) {
+        if (!enabled)
+            return null;
+
+        return toResult(memory.get(request.getKey()));
+    }
+
+    /**
+     * Looks up a media in memory and then on disk (must not be called on the main thread).
+     *
+     * @param request The media request
+     * @return A copy of the cached media or null if absent or expired
+     */
+    @Nullable
+    public Result get(@NonNull SambaMediaRequest request) {
+        if (!enabled)
+            return null;
+
+        String key = request.getKey();
+        Entry entry = memory.get(key);
+
+        if (entry == null) {
+            entry = readFromDisk(key);
+
+            if (entry != null)
+                memory.put(key, entry);
+        }
+
+        return toResult(entry);
+    }
+
+    /**
+     * Stores a media in memory and on disk, DRM medias in memory only (must not be called on the main thread).
+     *
+     * @param request The media request
+     * @param media The parsed media
+     */
+    public void put(@NonNull SambaMediaRequest request, @NonNull SambaMediaConfig media) {
+        if (!enabled)
+            return;
+
+        Entry entry = new Entry(request.getKey(), System.currentTimeMillis(), copy(media));
+
+        memory.put(entry.key, entry);
+
+        if (media.drmRequest == null)
+            writeToDisk(entry);
+        else
+            //noinspection ResultOfMethodCallIgnored
+            getFile(entry.key).delete();
+    }
+
+    /**
+     * Removes a media from the cache.
+     *
+     * @param request The media request
+     */
+    public void invalidate(@NonNull SambaMediaRequest request) {
+        String key = request.getKey();
+
+        memory.remove(key);
+
+        //noinspection ResultOfMethodCallIgnored
+        getFile(key).delete();
+    }
+
+    /**
+     * Removes every media from the cache.
+     */
+    public void clear() {
+        memory.evictAll();
+
+        File[] files = directory.listFiles();
+
+        if (files == null)
+            return;
+
+        for (File file : files)
+            //noinspection ResultOfMethodCallIgnored
+            file.delete();
+    }
+
+    /**
+     * Copies a media so cached (or otherwise shared) instances are never handed to callers.
+     * Every copy gets a new session ID, as it represents a new playback.
+     */
+    @NonNull
+    public static SambaMediaConfig copy(@NonNull SambaMediaConfig media) {
+        SambaMediaConfig copy = new SambaMediaConfig(media);
+
+        copy.blockIfRooted = media.blockIfRooted;
+        copy.sessionId = Helpers.getSessionId();
+        copy.adsSettings = new AdsSettings(media.adsSettings);
+        copy.captionsConfig = new SambaMedia.CaptionsConfig(media.captionsConfig.color,
+                media.captionsConfig.size, media.captionsConfig.language);
+
+        if (media.drmRequest != null)
+            copy.drmRequest = new DrmRequest(media.drmRequest);
+
+        if (media.outputs != null) {
+            copy.outputs = new ArrayList<>(media.outputs.size());
+
+            for (SambaMedia.Output output : media.outputs) {
+                SambaMedia.Output o = new SambaMedia.Output();
+                o.url = output.url;
+                o.label = output.label;
+                o.isDefault = output.isDefault;
+                o.position = output.position;
+                copy.outputs.add(o);
+            }
+        }
+
+        if (media.captions != null)
+            copy.captions = new ArrayList<>(media.captions);
+
+        copy.backupUrls = media.backupUrls.clone();
+
+        return copy;
+    }
+
+    @Nullable
+    private Result toResult(@Nullable Entry entry) {
+        if (entry == null)
+            return null;
+
+        long age = System.currentTimeMillis() - entry.time;
+
+        if (age > (entry.media.drmRequest != null ? freshTtl : staleTtl) || age < 0) {
+            memory.remove(entry.key);
+            return null;
+        }
+
+        return new Result(copy(entry.media), age > freshTtl);
+    }
+
+    @Nullable
+    private Entry readFromDisk(String key) {
+        File file = getFile(key);
+
+        if (!file.exists())
+            return null;
+
+        Reader reader = null;
+
+        try {
+            reader = new InputStreamReader(new FileInputStream(file), "UTF-8");
+            Entry entry = gson.fromJson(reader, Entry.class);
+
+            // hash collision or corrupted file
+            if (entry == null || !key.equals(entry.key) || entry.media == null)
+                return null;
+
+            // written by a previous version
+            if (entry.media.drmRequest != null) {
+                //noinspection ResultOfMethodCallIgnored
+                file.delete();
+                return null;
+            }
+
+            // transient fields are not persisted, re-derives them as in a parsed response
+            // (ads settings at their defaults, the deprecated thumbnail drawable unset)
+            entry.media.adsSettings = new AdsSettings();
+            entry.media.thumb = null;
+
+            return entry;
+        } catch (Exception e) {
+            Log.w(getClass().getSimpleName(), "Error reading cached media", e);
+        } finally {
+            try {
+                if (reader != null)
+                    reader.close();
+            } catch (IOException e) {
+                Log.w(getClass().getSimpleName(), "Error closing cached media", e);
+            }
+        }
+
+        return null;
+    }
+
+    private void writeToDisk(Entry entry) {
+        if (!directory.exists() && !directory.mkdirs())
+            return;
+
+        File tmp = new File(directory, getFile(entry.key).getName() + ".tmp");
+        Writer writer = null;
+
+        try {
+            writer = new OutputStreamWriter(new FileOutputStream(tmp), "UTF-8");
+            gson.toJson(entry, writer);
+            writer.close();
+            writer = null;
+
+            if (!tmp.renameTo(getFile(entry.key)))
+                //noinspection ResultOfMethodCallIgnored
+                tmp.delete();
+        } catch (Exception e) {
+            Log.w(getClass().getSimpleName(), "Error writing cached media", e);
+        } finally {
+            try {
+                if (writer != null)
+                    writer.close();
+            } catch (IOException e) {
+                Log.w(getClass().getSimpleName(), "Error closing cached media", e);
+            }
+        }
+
+        trimDisk();
+    }
+
+    /**
+     * Deletes the oldest files when disk entries exceed the limit.
+     */
+    private void trimDisk() {
+        File[] files = directory.listFiles();
+
+        if (files == null || files.length <= DISK_ENTRIES)
+            return;
+
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File lhs, File rhs) {
+                long diff = lhs.lastModified() - rhs.lastModified();
+                return diff < 0 ? -1 : (diff > 0 ? 1 : 0);
+            }
+        });
+
+        for (int i = 0, l = files.length - DISK_ENTRIES; i < l; ++i)
+            //noinspection ResultOfMethodCallIgnored
+            files[i].delete();
+    }
+
+    private File getFile(String key) {
+        return new File(directory, Integer.toHexString(key.hashCode()));
+    }
+
+    /**
+     * Cache lookup result.
+     */
+    public static class Result {
+        public final SambaMediaConfig media;
+        public final boolean isStale;
+
+        Result(SambaMediaConfig media, boolean isStale) {
+            this.media = media;
+            this.isStale = isStale;
+        }
+    }
+
+    private static class Entry {
+        String key;
+        long time;
+        SambaMediaConfig media;
+
+        Entry(String key, long time, SambaMediaConfig media) {
+            this.key = key;
+            this.time = time;
+            this.media = media;
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package com.sambatech.player.api;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.sambatech.player.model.SambaMediaRequest;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread pool shared by every SDK metadata request.
+ *
+ * Pending tasks are served by priority (FIFO among the same priority)
+ * and limited to a maximum number of simultaneous requests per host (and per `Limit`, when given).
+ */
+public final class SambaRequestEngine {
+
+    private static final int DEFAULT_MAX_REQUESTS_PER_HOST = 6;
+    private static final long KEEP_ALIVE_SECS = 30;
+
+    private static final SambaRequestEngine instance = new SambaRequestEngine();
+
+    private final ThreadPoolExecutor executor;
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<String, Integer> runningPerHost = new HashMap<>();
+    private final Map<String, PriorityQueue<Job>> waitingPerHost = new HashMap<>();
+    private int maxRequestsPerHost = DEFAULT_MAX_REQUESTS_PER_HOST;
+
+    private SambaRequestEngine() {
+        int poolSize = Math.max(2, Math.min(Runtime.getRuntime().availableProcessors() * 2, 8));
+
+        executor = new ThreadPoolExecutor(poolSize, poolSize, KEEP_ALIVE_SECS, TimeUnit.SECONDS,
+                new PriorityBlockingQueue<Runnable>(), new ThreadFactory() {
+            private final AtomicInteger counter = new AtomicInteger();
+
+            @Override
+            public Thread newThread(@NonNull Runnable r) {
+                Thread thread = new Thread(r, "SambaRequest #" + counter.incrementAndGet());
+                thread.setPriority(Thread.NORM_PRIORITY - 1);
+                return thread;
+            }
+        });
+
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    public static SambaRequestEngine getInstance() {
+        return instance;
+    }
+
+    /**
+     * Sets the number of worker threads.
+     *
+     * @param poolSize Maximum number of requests running at the same time
+     */
+    public void setPoolSize(int poolSize) {
+        if (poolSize < 1)
+            throw new IllegalArgumentException("Pool size must be at least 1");
+
+        if (poolSize > executor.getMaximumPoolSize()) {
+            executor.setMaximumPoolSize(poolSize);
+            executor.setCorePoolSize(poolSize);
+        } else {
+            executor.setCorePoolSize(poolSize);
+            executor.setMaximumPoolSize(poolSize);
+        }
+    }
+
+    public int getPoolSize() {
+        return executor.getMaximumPoolSize();
+    }
+
+    /**
+     * Sets the maximum number of simultaneous requests to the same host.
+     *
+     * @param maxRequestsPerHost Maximum number of requests per host
+     */
+    public synchronized void setMaxRequestsPerHost(int maxRequestsPerHost) {
+        if (maxRequestsPerHost < 1)
+            throw new IllegalArgumentException("Max requests per host must be at least 1");
+
+        this.maxRequestsPerHost = maxRequestsPerHost;
+    }
+
+    public synchronized int getMaxRequestsPerHost() {
+        return maxRequestsPerHost;
+    }
+
+    /**
+     * Enqueues a task.
+     *
+     * @param host Host the task will connect to (used for concurrency limits)
+     * @param priority Task priority
+     * @param task The task
+     * @return Handle for cancellation
+     */
+    public SambaRequestHandle execute(@NonNull String host, @NonNull SambaMediaRequest.Priority priority, @NonNull Task task) {
+        return execute(host, priority, task, null);
+    }
+
+    /**
+     * Enqueues a task sharing a concurrency limit with other tasks (e.g. the requests of a batch).
+     *
+     * @param host Host the task will connect to (used for concurrency limits)
+     * @param priority Task priority
+     * @param task The task
+     * @param limit Limit shared by the related tasks or null for none
+     * @return Handle for cancellation
+     */
+    public SambaRequestHandle execute(@NonNull String host, @NonNull SambaMediaRequest.Priority priority,
+                                      @NonNull Task task, @Nullable Limit limit) {
+        SambaRequestHandle handle = new SambaRequestHandle();
+        executor.execute(new Job(host, priority, sequence.getAndIncrement(), handle, task, limit));
+        return handle;
+    }
+
+    /**
+     * Reserves a slot for the job's host (and limit) or parks it until one is released.
+     */
+    private synchronized boolean acquire(Job job) {
+        if (job.limit != null && job.limit.running >= job.limit.max) {
+            job.limit.waiting.add(job);
+            return false;
+        }
+
+        Integer running = runningPerHost.get(job.host);
+
+        if (running != null && running >= maxRequestsPerHost) {
+            PriorityQueue<Job> waiting = waitingPerHost.get(job.host);
+
+            if (waiting == null) {
+                waiting = new PriorityQueue<>();
+                waitingPerHost.put(job.host, waiting);
+            }
+
+            waiting.add(job);
+            return false;
+        }
+
+        runningPerHost.put(job.host, running != null ? running + 1 : 1);
+
+        if (job.limit != null)
+            job.limit.running++;
+
+        return true;
+    }
+
+    /**
+     * Releases the job's slots and resubmits the next parked jobs for them, if any.
+     */
+    private void release(Job job) {
+        Job next = null;
+        Job nextInLimit = null;
+
+        synchronized (this) {
+            Integer running = runningPerHost.get(job.host);
+
+            if (running == null || running <= 1)
+                runningPerHost.remove(job.host);
+            else runningPerHost.put(job.host, running - 1);
+
+            PriorityQueue<Job> waiting = waitingPerHost.get(job.host);
+
+            if (waiting != null) {
+                next = pollPending(waiting);
+
+                if (waiting.isEmpty())
+                    waitingPerHost.remove(job.host);
+            }
+
+            if (job.limit != null) {
+                job.limit.running--;
+                nextInLimit = pollPending(job.limit.waiting);
+            }
+        }
+
+        if (next != null)
+            executor.execute(next);
+
+        if (nextInLimit != null)
+            executor.execute(nextInLimit);
+    }
+
+    /**
+     * Resubmits the next parked jobs for the slots a skipped job would have taken (it may have been resubmitted
+     * by `release` for a slot already freed, so the parked jobs would otherwise wait for unrelated traffic).
+     */
+    private void skip(Job job) {
+        Job next = null;
+        Job nextInLimit = null;
+
+        synchronized (this) {
+            Integer running = runningPerHost.get(job.host);
+            PriorityQueue<Job> waiting = waitingPerHost.get(job.host);
+
+            if (waiting != null && (running == null || running < maxRequestsPerHost)) {
+                next = pollPending(waiting);
+
+                if (waiting.isEmpty())
+                    waitingPerHost.remove(job.host);
+            }
+
+            if (job.limit != null && job.limit.running < job.limit.max)
+                nextInLimit = pollPending(job.limit.waiting);
+        }
+
+        // resubmitted jobs acquire their slots again (or are parked back)
+        if (next != null)
+            executor.execute(next);
+
+        if (nextInLimit != null)
+            executor.execute(nextInLimit);
+    }
+
+    /**
+     * Takes the next parked job, discarding cancelled ones (they would not release the slot to the others).
+     */
+    private static Job pollPending(PriorityQueue<Job> waiting) {
+        Job job = waiting.poll();
+
+        while (job != null && job.handle.isCancelled())
+            job = waiting.poll();
+
+        return job;
+    }
+
+    /**
+     * Unit of work executed by the engine.
+     */
+    public interface Task {
+
+        /**
+         * Runs on a worker thread.
+         *
+         * @param handle Handle of the current task (check it for cancellation before delivering results)
+         */
+        void run(@NonNull SambaRequestHandle handle);
+    }
+
+    /**
+     * Maximum number of simultaneous tasks among the ones sharing it, on top of the per-host limit.
+     * Parked tasks keep their own priorities.
+     */
+    public static final class Limit {
+        private final int max;
+        private final PriorityQueue<Job> waiting = new PriorityQueue<>();
+        private int running;
+
+        /**
+         * @param max Maximum number of simultaneous tasks
+         */
+        public Limit(int max) {
+            if (max < 1)
+                throw new IllegalArgumentException("Limit must be at least 1");
+
+            this.max = max;
+        }
+    }
+
+    private final class Job implements Runnable, Comparable<Job> {
+        private final String host;
+        private final SambaMediaRequest.Priority priority;
+        private final long order;
+        private final SambaRequestHandle handle;
+        private final Task task;
+        private final Limit limit;
+
+        Job(String host, SambaMediaRequest.Priority priority, long order, SambaRequestHandle handle, Task task, Limit limit) {
+            this.host = host;
+            this.priority = priority;
+            this.order = order;
+            this.handle = handle;
+            this.task = task;
+            this.limit = limit;
+        }
+
+        @Override
+        public void run() {
+            if (handle.isCancelled()) {
+                skip(this);
+                return;
+            }
+
+            if (!acquire(this))
+                return;
+
+            try {
+                if (!handle.isCancelled())
+                    task.run(handle);
+            } finally {
+                handle.markDone();
+                release(this);
+            }
+        }
+
+        @Override
+        public int compareTo(@NonNull Job other) {
+            int diff = priority.compareTo(other.priority);
+            return diff != 0 ? diff : (order < other.order ? -1 : (order == other.order ? 0 : 1));
+        }
+    }
+}
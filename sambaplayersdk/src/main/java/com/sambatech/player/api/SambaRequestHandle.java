@@ -0,0 +1,75 @@
+package com.sambatech.player.api;
+
+import android.support.annotation.NonNull;
+
+/**
+ * Handle for a pending media request, allowing its cancellation.
+ * Once cancelled, the request callback will not be triggered.
+ */
+public class SambaRequestHandle {
+
+    private final SambaRequestHandle[] children;
+    private volatile boolean cancelled;
+    private volatile boolean done;
+
+    SambaRequestHandle() {
+        this.children = new SambaRequestHandle[]{};
+    }
+
+    private SambaRequestHandle(SambaRequestHandle[] children) {
+        this.children = children;
+    }
+
+    /**
+     * Groups several handles into one, so they can be cancelled together.
+     *
+     * @param handles Handles to be grouped
+     * @return A handle representing all the given ones
+     */
+    public static SambaRequestHandle group(@NonNull SambaRequestHandle... handles) {
+        return new SambaRequestHandle(handles);
+    }
+
+    /**
+     * Cancels the request, if not finished yet.
+     *
+     * @return Whether it was (or all of the grouped requests were) cancelled
+     */
+    public boolean cancel() {
+        boolean result = !done;
+
+        for (SambaRequestHandle child : children)
+            result &= child.cancel();
+
+        if (!done)
+            cancelled = true;
+
+        return result;
+    }
+
+    public boolean isCancelled() {
+        if (children.length == 0)
+            return cancelled;
+
+        for (SambaRequestHandle child : children)
+            if (!child.isCancelled())
+                return false;
+
+        return true;
+    }
+
+    public boolean isDone() {
+        if (children.length == 0)
+            return done || cancelled;
+
+        for (SambaRequestHandle child : children)
+            if (!child.isDone())
+                return false;
+
+        return true;
+    }
+
+    void markDone() {
+        done = true;
+    }
+}
@@ -0,0 +1,131 @@
+package com.sambatech.player.api;
+
+import android.support.annotation.NonNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Decodes the obfuscated media token on the fly.
+ *
+ * The token is a URL-safe (or standard) base64 payload surrounded by `delimiter` junk characters
+ * on both ends; padding is optional and unknown characters are ignored.
+ */
+public class SambaTokenInputStream extends InputStream {
+
+    private static final int[] alphabet = new int[128];
+
+    static {
+        for (int i = 0; i < alphabet.length; ++i)
+            alphabet[i] = -1;
+
+        for (int i = 0; i < 26; ++i) {
+            alphabet['A' + i] = i;
+            alphabet['a' + i] = 26 + i;
+        }
+
+        for (int i = 0; i < 10; ++i)
+            alphabet['0' + i] = 52 + i;
+
+        alphabet['+'] = alphabet['-'] = 62;
+        alphabet['/'] = alphabet['_'] = 63;
+    }
+
+    private final InputStream in;
+    private final byte[] buffer = new byte[8192];
+    private final int trim;
+    private int skip;
+    private int start;
+    private int end;
+    private boolean eof;
+    private int bits;
+    private int bitCount;
+
+    /**
+     * @param in The raw token stream
+     * @param delimiter Number of junk characters on each end of the token
+     */
+    public SambaTokenInputStream(@NonNull InputStream in, int delimiter) {
+        if (delimiter < 0 || delimiter >= buffer.length)
+            throw new IllegalArgumentException("Invalid token delimiter: " + delimiter);
+
+        this.in = in;
+        this.skip = delimiter;
+        this.trim = delimiter;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int c;
+
+        while ((c = nextChar()) != -1) {
+            int value = c < alphabet.length ? alphabet[c] : -1;
+
+            if (value == -1)
+                continue;
+
+            bits = (bits << 6) | value;
+            bitCount += 6;
+
+            if (bitCount >= 8) {
+                bitCount -= 8;
+                return (bits >> bitCount) & 0xFF;
+            }
+        }
+
+        return -1;
+    }
+
+    @Override
+    public int read(@NonNull byte[] b, int off, int len) throws IOException {
+        if (len == 0)
+            return 0;
+
+        int i = 0;
+        int c;
+
+        while (i < len && (c = read()) != -1)
+            b[off + i++] = (byte) c;
+
+        return i == 0 ? -1 : i;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * Retrieves the next raw character, skipping the leading junk and holding back the trailing one.
+     */
+    private int nextChar() throws IOException {
+        if (end - start <= trim && !fill())
+            return -1;
+
+        return buffer[start++] & 0xFF;
+    }
+
+    private boolean fill() throws IOException {
+        while (!eof && end - start <= trim) {
+            if (start > 0) {
+                System.arraycopy(buffer, start, buffer, 0, end - start);
+                end -= start;
+                start = 0;
+            }
+
+            int n = in.read(buffer, end, buffer.length - end);
+
+            if (n == -1)
+                eof = true;
+            else end += n;
+
+            if (skip > 0) {
+                int k = Math.min(skip, end - start);
+                start += k;
+                skip -= k;
+            }
+        }
+
+        return end - start > trim;
+    }
+}
@@ -0,0 +1,129 @@
+package com.sambatech.player.api;
+
+import android.support.annotation.NonNull;
+
+import com.sambatech.player.model.SambaMediaRequest;
+
+/**
+ * Allocation-light URL helpers used while resolving medias (no regular expressions involved).
+ */
+public final class SambaUrls {
+
+    private static final String HDS_EXTENSION = ".f4m";
+    private static final String HLS_PLAYLIST = "playlist.m3u8";
+
+    private SambaUrls() {}
+
+    /**
+     * Replaces every "http"/"https" occurrence of a URL with the informed protocol.
+     *
+     * @param url The URL
+     * @param protocol The new protocol
+     * @return The normalized URL (the same instance if nothing changed)
+     */
+    @NonNull
+    public static String normalizeProtocol(@NonNull String url, @NonNull SambaMediaRequest.Protocol protocol) {
+        String scheme = protocol == SambaMediaRequest.Protocol.HTTP ? "http" : "https";
+        StringBuilder sb = null;
+        int last = 0;
+        int i = url.indexOf("http");
+
+        while (i != -1) {
+            int end = i + 4;
+
+            if (end < url.length() && url.charAt(end) == 's')
+                ++end;
+
+            if (end - i != scheme.length()) {
+                if (sb == null)
+                    sb = new StringBuilder(url.length() + 1);
+
+                sb.append(url, last, i).append(scheme);
+                last = end;
+            }
+
+            i = url.indexOf("http", end);
+        }
+
+        if (sb == null)
+            return url;
+
+        return sb.append(url, last, url.length()).toString();
+    }
+
+    /**
+     * Retrieves the token delimiter encoded in a media ID (the last digit followed only by letters).
+     *
+     * @param mediaId The media ID
+     * @return The delimiter
+     * @throws IllegalArgumentException If the media ID has no delimiter
+     */
+    public static int getTokenDelimiter(@NonNull String mediaId) {
+        int i = contentEnd(mediaId) - 1;
+
+        while (i >= 0 && isAsciiLetter(mediaId.charAt(i)))
+            --i;
+
+        // the delimiter cannot be the first character
+        if (i <= 0 || mediaId.charAt(i) < '0' || mediaId.charAt(i) > '9')
+            throw new IllegalArgumentException("Invalid media ID: " + mediaId);
+
+        return mediaId.charAt(i) - '0';
+    }
+
+    /**
+     * Replaces an HDS manifest (e.g. "manifest.f4m") with the HLS playlist of the same stream.
+     *
+     * @param url The URL
+     * @return The HLS URL or the same URL when not HDS
+     */
+    @NonNull
+    public static String fallbackFromHds(@NonNull String url) {
+        int tail = contentEnd(url);
+        int end = tail - HDS_EXTENSION.length();
+
+        if (!url.startsWith(HDS_EXTENSION, end))
+            return url;
+
+        int start = end;
+
+        while (start > 0 && isWordChar(url.charAt(start - 1)))
+            --start;
+
+        if (start == end)
+            return url;
+
+        return new StringBuilder(url.length() - tail + start + HLS_PLAYLIST.length())
+                .append(url, 0, start).append(HLS_PLAYLIST).append(url, tail, url.length()).toString();
+    }
+
+    /**
+     * End of a string disregarding a final line terminator, as the "$" boundary of the former regular expressions.
+     */
+    private static int contentEnd(String s) {
+        int length = s.length();
+
+        if (length == 0)
+            return 0;
+
+        switch (s.charAt(length - 1)) {
+            case '\n':
+                return length > 1 && s.charAt(length - 2) == '\r' ? length - 2 : length - 1;
+            case '\r':
+            case '\u0085':
+            case '\u2028':
+            case '\u2029':
+                return length - 1;
+            default:
+                return length;
+        }
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isWordChar(char c) {
+        return isAsciiLetter(c) || (c >= '0' && c <= '9') || c == '_';
+    }
+}
@@ -17,6 +17,7 @@ package com.sambatech.player.cast;
 
 import android.content.Context;
 import android.os.Looper;
+import android.os.SystemClock;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.util.Log;
@@ -48,8 +49,9 @@ import com.google.android.gms.cast.framework.media.RemoteMediaClient.MediaChanne
 import com.google.android.gms.common.api.PendingResult;
 import com.google.android.gms.common.api.ResultCallback;
 import com.sambatech.player.event.SambaEvent;
-import com.sambatech.player.event.SambaEventBus;
+import com.sambatech.player.event.SambaLocalEventBus;
 import com.sambatech.player.event.SambaPlayerListener;
+import com.sambatech.player.event.SambaProgressChannel;
 
 import org.json.JSONException;
 import org.json.JSONObject;
@@ -77,6 +79,8 @@ import java.util.concurrent.CopyOnWriteArraySet;
 public final class CastPlayer implements Player {
 
   private final Context context;
+  private final SambaLocalEventBus eventBus;
+  private final SambaProgressChannel progressChannel;
 
   /**
    * Listener of changes in the cast session availability.
@@ -158,7 +162,10 @@ public final class CastPlayer implements Player {
           lastReportedPositionMs = (long) (jsonObject.getDouble("progress") * 1000);
           lastReportedDurationMs = (long) (jsonObject.getDouble("duration") * 1000);
           updateInternalState();
-          SambaEventBus.post(new SambaEvent(SambaPlayerListener.EventType.PROGRESS, (float)lastReportedPositionMs, (float) lastReportedDurationMs));
+          progressChannel.update(lastReportedPositionMs, lastReportedDurationMs, lastReportedPositionMs, SystemClock.uptimeMillis());
+
+          if (eventBus.hasSubscribers(SambaPlayerListener.EventType.PROGRESS))
+            eventBus.post(new SambaEvent(SambaPlayerListener.EventType.PROGRESS, (float)lastReportedPositionMs, (float) lastReportedDurationMs));
 
          // eventListener.onPlayerStateChanged(true, Player.STATE_READY );
 
@@ -173,7 +180,7 @@ public final class CastPlayer implements Player {
             playWhenReady = false;
             SambaCast.setCurrentStatus(context, playWhenReady);
             updateInternalState();
-            SambaEventBus.post(new SambaEvent(SambaPlayerListener.EventType.CAST_FINISH));
+            eventBus.post(new SambaEvent(SambaPlayerListener.EventType.CAST_FINISH));
           }
         }
       } catch (JSONException e) {
@@ -185,9 +192,13 @@ public final class CastPlayer implements Player {
   /**
    * @param context
    * @param sambaCast The context from which the cast session is obtained.
+   * @param eventBus The bus of the player events.
+   * @param progressChannel The progress of the player.
    */
-  public CastPlayer(Context context, SambaCast sambaCast) {
+  public CastPlayer(Context context, SambaCast sambaCast, SambaLocalEventBus eventBus, SambaProgressChannel progressChannel) {
     this.context = context;
+    this.eventBus = eventBus;
+    this.progressChannel = progressChannel;
     this.sambaCast = sambaCast;
     this.castContext = sambaCast.getCastContext();
     timelineTracker = new CastTimelineTracker();
@@ -425,10 +436,10 @@ public final class CastPlayer implements Player {
 
     if (playWhenReady) {
       sambaCast.playCast();
-      SambaEventBus.post(new SambaEvent(SambaPlayerListener.EventType.CAST_PLAY));
+      eventBus.post(new SambaEvent(SambaPlayerListener.EventType.CAST_PLAY));
     } else {
       sambaCast.pauseCast();
-      SambaEventBus.post(new SambaEvent(SambaPlayerListener.EventType.CAST_PAUSE));
+      eventBus.post(new SambaEvent(SambaPlayerListener.EventType.CAST_PAUSE));
     }
   }
 
@@ -1,5 +1,6 @@
 package com.sambatech.player.event;
 
+import com.sambatech.player.model.SambaBatchStats;
 import com.sambatech.player.model.SambaMedia;
 import com.sambatech.player.model.SambaMediaRequest;
 
@@ -22,6 +23,15 @@ public abstract class SambaApiCallback {
 	 */
 	public void onMediaListResponse(SambaMedia[] mediaList) {}
 
+	/**
+	 * Fired up after a set of success responses from the server, along with its timing report.
+	 * @param mediaList SambaMedia
+	 * @param stats Latency of each request and of the whole batch
+	 */
+	public void onMediaListResponse(SambaMedia[] mediaList, SambaBatchStats stats) {
+		onMediaListResponse(mediaList);
+	}
+
 	/**
 	 *
 	 * Fired up after an error response from the server.
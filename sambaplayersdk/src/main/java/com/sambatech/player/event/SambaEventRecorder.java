@@ -0,0 +1,166 @@
+package com.sambatech.player.event;
+
+import android.support.annotation.NonNull;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+
+/**
+ * Keeps a timeline of the latest events posted to a bus (see `SambaLocalEventBus.setRecorder`),
+ * e.g. to measure the time from LOAD to START to the first PROGRESS in the field.
+ *
+ * Events are recorded into pre-allocated slots of a ring buffer (no allocation per event), timestamped
+ * with a monotonic clock; once full, the oldest events are overwritten.
+ */
+public class SambaEventRecorder {
+
+	private static final int VERSION = 1;
+
+	private final long[] times;
+	private final SambaEventType[] types;
+	private final float[] values;
+	private long count;
+
+	/**
+	 * @param capacity Number of events kept
+	 */
+	public SambaEventRecorder(int capacity) {
+		if (capacity < 1)
+			throw new IllegalArgumentException("Capacity must be positive");
+
+		times = new long[capacity];
+		types = new SambaEventType[capacity];
+		values = new float[capacity];
+	}
+
+	/**
+	 * Records an event (called by the bus).
+	 * @param e a particular event
+	 */
+	public void record(@NonNull SambaEvent e) {
+		long time = System.nanoTime();
+		Object data = e.getData();
+
+		synchronized (this) {
+			int i = (int) (count++ % times.length);
+
+			times[i] = time;
+			types[i] = e.getType();
+			// keeps numeric data, e.g. PROGRESS position
+			values[i] = data instanceof Number ? ((Number) data).floatValue() : Float.NaN;
+		}
+	}
+
+	/**
+	 * Number of events kept.
+	 */
+	public synchronized int size() {
+		return (int) Math.min(count, times.length);
+	}
+
+	/**
+	 * Discards every recorded event.
+	 */
+	public synchronized void clear() {
+		count = 0;
+
+		for (int i = 0; i < types.length; ++i)
+			types[i] = null;
+	}
+
+	/**
+	 * Measures the time between the first occurrence of an event type and the first subsequent occurrence of another.
+	 * @param from Initial event type, e.g. LOAD
+	 * @param to Final event type, e.g. START
+	 * @return Time (ns) or -1 if any of them was not recorded
+	 */
+	public synchronized long getElapsed(@NonNull SambaEventType from, @NonNull SambaEventType to) {
+		long start = -1;
+
+		for (long n = Math.max(0, count - times.length); n < count; ++n) {
+			int i = (int) (n % times.length);
+
+			if (start == -1) {
+				if (types[i] == from)
+					start = times[i];
+			}
+			else if (types[i] == to)
+				return times[i] - start;
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Exports the recorded events in JSON, with times (ns) relative to the oldest recorded event, e.g.
+	 * {"version":1,"dropped":0,"events":[["LOAD",0],["START",350000000],["PROGRESS",600000000,0.25]]}.
+	 * @param writer Output
+	 */
+	public void writeJson(@NonNull Writer writer) throws IOException {
+		long[] times;
+		SambaEventType[] types;
+		float[] values;
+		long dropped;
+
+		// copies the timeline so the bus is not blocked while writing
+		synchronized (this) {
+			int size = size();
+
+			times = new long[size];
+			types = new SambaEventType[size];
+			values = new float[size];
+			dropped = count - size;
+
+			for (int j = 0; j < size; ++j) {
+				int i = (int) ((dropped + j) % this.times.length);
+
+				times[j] = this.times[i];
+				types[j] = this.types[i];
+				values[j] = this.values[i];
+			}
+		}
+
+		JsonWriter json = new JsonWriter(writer);
+
+		json.beginObject();
+		json.name("version").value(VERSION);
+		json.name("dropped").value(dropped);
+		json.name("events").beginArray();
+
+		for (int i = 0; i < times.length; ++i) {
+			json.beginArray();
+			json.value(String.valueOf(types[i]));
+			json.value(times[i] - times[0]);
+
+			if (!Float.isNaN(values[i]))
+				json.value(values[i]);
+
+			json.endArray();
+		}
+
+		json.endArray();
+		json.endObject();
+		json.flush();
+	}
+
+	/**
+	 * Exports the recorded events in JSON (see `writeJson`).
+	 */
+	@NonNull
+	public String toJson() {
+		StringWriter writer = new StringWriter();
+
+		try {
+			writeJson(writer);
+		}
+		catch (IOException e) {
+			// not thrown by StringWriter
+			throw new IllegalStateException(e);
+		}
+
+		return writer.toString();
+	}
+}
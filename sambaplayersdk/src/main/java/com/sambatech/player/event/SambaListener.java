@@ -0,0 +1,17 @@
+package com.sambatech.player.event;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a `SambaPlayerListener` subclass to have its dispatcher generated at compile time
+ * (requires `annotationProcessor project(':sambaplayersdk-processor')` or the equivalent artifact).
+ *
+ * Listeners with a generated dispatcher are resolved without reflection and are safe under minification;
+ * others keep being resolved by their handler names.
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface SambaListener {}
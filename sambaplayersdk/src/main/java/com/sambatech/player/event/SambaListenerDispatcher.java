@@ -0,0 +1,25 @@
+package com.sambatech.player.event;
+
+/**
+ * Dispatcher generated for a listener class annotated with `SambaListener`
+ * (named after the listener, e.g. `MyActivity_PlayerListener_SambaDispatcher` for `MyActivity.PlayerListener`).
+ */
+public interface SambaListenerDispatcher {
+
+	/**
+	 * Suffix of the generated dispatcher class names.
+	 */
+	String SUFFIX = "_SambaDispatcher";
+
+	/**
+	 * Event types handled by the listener, a bit per event type ordinal.
+	 */
+	long getHandledTypes();
+
+	/**
+	 * Invokes the handler of an event.
+	 * @param listener the listener (an instance of the class the dispatcher was generated for)
+	 * @param e a particular event
+	 */
+	void dispatch(Object listener, SambaEvent e);
+}
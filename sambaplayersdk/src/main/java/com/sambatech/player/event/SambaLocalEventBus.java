@@ -0,0 +1,876 @@
+package com.sambatech.player.event;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.Log;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Event bus scoped to a single player, so each post reaches only the listeners of that player.
+ * Events are also forwarded to the global bus (`SambaEventBus`), where app-level listeners receive the events of every player.
+ *
+ * Listeners are resolved once, at subscribe time, into a dispatch table indexed by event type ordinal
+ * (one table per event type enum); posting involves no string building nor reflection
+ * for `SambaPlayerListener` (other listener families fall back to the cached handler methods).
+ * Listeners annotated with `SambaListener` are resolved by their generated dispatcher, without reflection.
+ *
+ * Tables are copy-on-write: posting reads an immutable snapshot without locking (any thread),
+ * subscribing and unsubscribing (serialized) publish a new one. Changes made during a dispatch
+ * take effect from the next post on.
+ *
+ * Listeners run on the posting thread unless subscribed with another `DeliveryMode`; those get a bounded
+ * queue of pending events, discarded on unsubscribe. For coalesced event types (PROGRESS by default) a queue keeps
+ * only the newest pending event, so slow listeners never process stale values one by one.
+ *
+ * The last event of each sticky type is kept and replayed to listeners subscribing afterwards,
+ * so late subscribers get the current state without polling the player.
+ *
+ * Weakly subscribed listeners do not outlive their owner because of the bus; they are pruned once collected.
+ * Listeners still subscribed after a DESTROY event are reported as likely leaks (see `getLeakReport`).
+ */
+public class SambaLocalEventBus {
+
+	/**
+	 * Thread a listener is invoked on.
+	 */
+	public enum DeliveryMode {
+		/** Inline, on the thread posting the event (default). */
+		POSTING,
+		/** On the main thread, in posting order. */
+		MAIN,
+		/** On a background thread, in posting order (one event at a time per listener). */
+		BACKGROUND,
+		/** On a pool of background threads, concurrently. */
+		ASYNC
+	}
+
+	/**
+	 * What to do when the queue of a listener is full.
+	 */
+	public enum OverflowPolicy {
+		/** Discards the oldest pending event. */
+		DROP_OLDEST,
+		/** Discards the event being posted. */
+		DROP_NEWEST
+	}
+
+	public static final int DEFAULT_QUEUE_CAPACITY = 64;
+
+	private static final int POOL_SIZE = 4;
+
+	// resolved handlers are shared among every bus
+	private static final Map<Class<?>, Method[]> handlersCache = new ConcurrentHashMap<>();
+	// generated dispatchers by listener class (or NO_DISPATCHER)
+	private static final Map<Class<?>, Object> dispatchers = new ConcurrentHashMap<>();
+	private static final Object NO_DISPATCHER = new Object();
+	private static final ThreadPoolExecutor pool = new ThreadPoolExecutor(POOL_SIZE, POOL_SIZE, 30, TimeUnit.SECONDS,
+			new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+		@Override
+		public Thread newThread(@NonNull Runnable r) {
+			Thread thread = new Thread(r, "SambaEventBus");
+			thread.setDaemon(true);
+			return thread;
+		}
+	});
+	private static Executor mainExecutor;
+
+	static {
+		pool.allowCoreThreadTimeOut(true);
+	}
+
+	private final SambaLocalEventBus parent;
+	private final Metrics metrics = new Metrics();
+	private volatile Map<Class<?>, Subscription[][]> table = new HashMap<>();
+	private volatile Set<SambaEventType> coalesced = new HashSet<SambaEventType>(Arrays.asList(SambaPlayerListener.EventType.PROGRESS));
+	private volatile Set<SambaEventType> sticky = new HashSet<>();
+	private final Map<SambaEventType, StickyEvent> stickyEvents = new ConcurrentHashMap<>();
+	// orders the sticky events (guarded by the bus)
+	private long stickySequence;
+	private volatile SambaEventRecorder recorder;
+	private volatile int destroyCount;
+
+	/**
+	 * Creates a bus forwarding its events to the global bus.
+	 */
+	public SambaLocalEventBus() {
+		this(SambaEventBus.getGlobal());
+	}
+
+	/**
+	 * @param parent Bus to forward every event to (optional)
+	 */
+	SambaLocalEventBus(@Nullable SambaLocalEventBus parent) {
+		this.parent = parent;
+	}
+
+	/**
+	 * Registers a listener, invoked on the posting thread.
+	 * @param listener listener object
+	 */
+	public void subscribe(@NonNull Object listener) {
+		subscribe(listener, DeliveryMode.POSTING);
+	}
+
+	/**
+	 * Registers a listener.
+	 * @param listener listener object
+	 * @param mode Thread the listener is invoked on
+	 */
+	public void subscribe(@NonNull Object listener, @NonNull DeliveryMode mode) {
+		subscribe(listener, mode, DEFAULT_QUEUE_CAPACITY, OverflowPolicy.DROP_OLDEST);
+	}
+
+	/**
+	 * Registers a listener.
+	 * @param listener listener object
+	 * @param mode Thread the listener is invoked on
+	 * @param capacity Maximum number of pending events (ignored when posting thread)
+	 * @param policy What to do when the pending events reach the capacity
+	 */
+	public void subscribe(@NonNull Object listener, @NonNull DeliveryMode mode, int capacity,
+						  @NonNull OverflowPolicy policy) {
+		register(listener, mode, capacity, policy, false);
+	}
+
+	/**
+	 * Registers a listener without preventing it from being garbage collected (invoked on the posting thread).
+	 * The caller must keep a reference to the listener (e.g. a field of the activity), otherwise it may stop
+	 * receiving events at any time.
+	 * @param listener listener object
+	 */
+	public void subscribeWeak(@NonNull Object listener) {
+		subscribeWeak(listener, DeliveryMode.POSTING);
+	}
+
+	/**
+	 * Registers a listener without preventing it from being garbage collected (see `subscribeWeak(Object)`).
+	 * @param listener listener object
+	 * @param mode Thread the listener is invoked on
+	 */
+	public void subscribeWeak(@NonNull Object listener, @NonNull DeliveryMode mode) {
+		register(listener, mode, DEFAULT_QUEUE_CAPACITY, OverflowPolicy.DROP_OLDEST, true);
+	}
+
+	private void register(Object listener, DeliveryMode mode, int capacity, OverflowPolicy policy, boolean weak) {
+		if (capacity < 1)
+			throw new IllegalArgumentException("Capacity must be positive");
+
+		Class<?> family = getFamily(listener.getClass());
+
+		if (family == null)
+			return;
+
+		// one queue per listener keeps its events in order among every type
+		Mailbox mailbox = mode != DeliveryMode.POSTING ? new Mailbox(mode, capacity, policy) : null;
+
+		Class<? extends Enum> enumClass = getEventTypeEnum(family);
+		SambaListenerDispatcher dispatcher = family == SambaPlayerListener.class ? getDispatcher(listener.getClass()) : null;
+		Method[] handlers = dispatcher == null ? getHandlers(listener.getClass(), family, enumClass) : null;
+		Enum[] types = enumClass.getEnumConstants();
+		Subscription[] added = new Subscription[types.length];
+		StickyEvent[] replayed = new StickyEvent[types.length];
+		WeakReference<Object> weakListener = weak ? new WeakReference<>(listener) : null;
+
+		synchronized (this) {
+			Subscription[][] byType = table.get(enumClass);
+
+			byType = byType != null ? byType.clone() : new Subscription[types.length][];
+
+			for (int i = 0; i < types.length; ++i) {
+				if (dispatcher != null ? (dispatcher.getHandledTypes() & 1L << i) == 0 : handlers[i] == null)
+					continue;
+
+				Subscription[] current = byType[i] != null ? byType[i] : new Subscription[0];
+				Subscription[] updated = Arrays.copyOf(current, current.length + 1);
+
+				// player listeners are dispatched directly
+				added[i] = new Subscription(weak ? null : listener, weakListener,
+						family == SambaPlayerListener.class ? null : handlers[i], dispatcher, mailbox, destroyCount);
+				updated[current.length] = added[i];
+				byType[i] = updated;
+				replayed[i] = stickyEvents.get((SambaEventType) types[i]);
+			}
+
+			publish(enumClass, byType);
+		}
+
+		// replays the current state (in event type order) out of the lock, unless already delivered by a concurrent post
+		for (int i = 0; i < types.length; ++i)
+			if (replayed[i] != null && added[i].advance(replayed[i].sequence))
+				send(added[i], replayed[i].event);
+	}
+
+	/**
+	 * Unregisters a listener.
+	 * @param listener listener object
+	 */
+	public synchronized void unsubscribe(@NonNull Object listener) {
+		Class<?> family = getFamily(listener.getClass());
+
+		if (family == null)
+			return;
+
+		Class<? extends Enum> enumClass = getEventTypeEnum(family);
+		Subscription[][] byType = table.get(enumClass);
+
+		if (byType != null)
+			publish(enumClass, remove(byType, listener));
+	}
+
+	/**
+	 * Removes the subscriptions of a listener (only the last one of each type) or, when null,
+	 * every subscription whose listener has been collected.
+	 */
+	private static Subscription[][] remove(Subscription[][] byType, @Nullable Object listener) {
+		byType = byType.clone();
+
+		for (int i = 0; i < byType.length; ++i) {
+			Subscription[] current = byType[i];
+
+			if (current == null)
+				continue;
+
+			for (int j = current.length; j-- > 0;) {
+				if (listener != null ? current[j].getListener() != listener : !current[j].isCleared())
+					continue;
+
+				if (current[j].mailbox != null)
+					current[j].mailbox.close();
+
+				Subscription[] updated = new Subscription[current.length - 1];
+
+				System.arraycopy(current, 0, updated, 0, j);
+				System.arraycopy(current, j + 1, updated, j, updated.length - j);
+				current = updated;
+
+				if (listener != null)
+					break;
+			}
+
+			byType[i] = current.length > 0 ? current : null;
+		}
+
+		return byType;
+	}
+
+	/**
+	 * Removes the subscriptions of collected listeners.
+	 */
+	private synchronized void prune() {
+		for (Map.Entry<Class<?>, Subscription[][]> kv : table.entrySet())
+			publish(kv.getKey(), remove(kv.getValue(), null));
+	}
+
+	/**
+	 * Triggers an event on this bus and its parent.
+	 * @param e a particular event
+	 */
+	public void post(@NonNull SambaEvent e) {
+		// only the bus of the destroyed player tracks it (listeners of the parent outlive its players)
+		if (e.getType() == SambaPlayerListener.EventType.DESTROY) {
+			synchronized (this) {
+				++destroyCount;
+			}
+		}
+
+		forward(e);
+	}
+
+	/**
+	 * Triggers an event posted to a child bus, on this bus and its parent.
+	 */
+	private void forward(SambaEvent e) {
+		SambaEventRecorder recorder = this.recorder;
+
+		if (recorder != null)
+			recorder.record(e);
+
+		deliver(e);
+
+		if (parent != null)
+			parent.forward(e);
+	}
+
+	/**
+	 * Defines whether an event type has "latest value" semantics: a newer event replaces the one still pending
+	 * to a listener (applies only to listeners not invoked on the posting thread).
+	 * @param type a particular event type
+	 * @param enabled Whether to coalesce
+	 */
+	public synchronized void setCoalesced(@NonNull SambaEventType type, boolean enabled) {
+		Set<SambaEventType> updated = new HashSet<>(coalesced);
+
+		if (enabled)
+			updated.add(type);
+		else updated.remove(type);
+
+		coalesced = updated;
+	}
+
+	/**
+	 * Defines whether the last event of a type is kept and replayed to listeners subscribing afterwards.
+	 * @param type a particular event type
+	 * @param enabled Whether to keep the last event
+	 */
+	public synchronized void setSticky(@NonNull SambaEventType type, boolean enabled) {
+		Set<SambaEventType> updated = new HashSet<>(sticky);
+
+		if (enabled)
+			updated.add(type);
+		else {
+			updated.remove(type);
+			stickyEvents.remove(type);
+		}
+
+		sticky = updated;
+	}
+
+	/**
+	 * Retrieves the last event of a sticky type.
+	 * @param type a particular event type
+	 * @return The event or null if none was posted (or cleared since)
+	 */
+	@Nullable
+	public SambaEvent getStickyEvent(@NonNull SambaEventType type) {
+		StickyEvent kept = stickyEvents.get(type);
+		return kept != null ? kept.event : null;
+	}
+
+	/**
+	 * Discards the kept sticky events, e.g. when the player state is reset.
+	 */
+	public synchronized void clearStickyEvents() {
+		stickyEvents.clear();
+	}
+
+	/**
+	 * Defines a recorder of every event posted to this bus (events are no longer skipped for lack of listeners).
+	 * @param recorder The recorder or null to stop recording
+	 */
+	public void setRecorder(@Nullable SambaEventRecorder recorder) {
+		this.recorder = recorder;
+	}
+
+	/**
+	 * Lists the listeners subscribed before the last DESTROY event posted to this bus (not forwarded from a child)
+	 * that are still subscribed (and alive), most likely leaked by an owner that missed unsubscribing.
+	 * @return Description of each listener (class and identity)
+	 */
+	@NonNull
+	public synchronized List<String> getLeakReport() {
+		IdentityHashMap<Object, Boolean> leaked = new IdentityHashMap<>();
+
+		for (Subscription[][] byType : table.values())
+			for (Subscription[] subscriptions : byType)
+				if (subscriptions != null)
+					for (Subscription subscription : subscriptions) {
+						Object listener = subscription.getListener();
+
+						if (listener != null && subscription.destroyCount < destroyCount)
+							leaked.put(listener, subscription.weakListener != null);
+					}
+
+		List<String> report = new ArrayList<>();
+
+		for (Map.Entry<Object, Boolean> kv : leaked.entrySet())
+			report.add(String.format(Locale.ENGLISH, "%s@%x%s", kv.getKey().getClass().getName(),
+					System.identityHashCode(kv.getKey()), kv.getValue() ? " (weak)" : ""));
+
+		return report;
+	}
+
+	/**
+	 * Indicates whether an event type has any listener, on this bus or its parent.
+	 * Allows expensive or frequent events to be skipped when no one is listening.
+	 * A recorder counts as a listener of every type, so skipped events do not go missing from the timeline.
+	 * @param type a particular event type
+	 */
+	public boolean hasSubscribers(@NonNull SambaEventType type) {
+		if (recorder != null)
+			return true;
+
+		if (type instanceof Enum) {
+			Subscription[][] byType = table.get(((Enum<?>) type).getDeclaringClass());
+
+			if (byType != null && byType[((Enum<?>) type).ordinal()] != null)
+				return true;
+		}
+
+		return parent != null && parent.hasSubscribers(type);
+	}
+
+	private void deliver(SambaEvent e) {
+		if (!(e.getType() instanceof Enum))
+			return;
+
+		Enum<?> type = (Enum<?>) e.getType();
+		Subscription[][] byType;
+		long sequence = 0;
+
+		if (sticky.contains(e.getType())) {
+			// keeps a subscription from missing the event (listeners are invoked out of the lock)
+			synchronized (this) {
+				sequence = ++stickySequence;
+				stickyEvents.put(e.getType(), new StickyEvent(e, sequence));
+				byType = table.get(type.getDeclaringClass());
+			}
+		}
+		else byType = table.get(type.getDeclaringClass());
+
+		if (byType == null)
+			return;
+
+		Subscription[] subscriptions = byType[type.ordinal()];
+
+		if (subscriptions == null)
+			return;
+
+		boolean cleared = false;
+
+		for (Subscription subscription : subscriptions) {
+			if (subscription.isCleared())
+				cleared = true;
+			else if (sequence == 0 || subscription.advance(sequence))
+				send(subscription, e);
+		}
+
+		if (cleared)
+			prune();
+	}
+
+	private void send(Subscription subscription, SambaEvent e) {
+		if (subscription.mailbox == null)
+			invoke(subscription, e);
+		else subscription.mailbox.offer(subscription, e);
+	}
+
+	/**
+	 * Retrieves a snapshot of the metrics of asynchronous deliveries.
+	 */
+	@NonNull
+	public Metrics getMetrics() {
+		return new Metrics(metrics);
+	}
+
+	private void invoke(Subscription subscription, SambaEvent e) {
+		Object listener = subscription.getListener();
+
+		if (listener == null)
+			return;
+
+		try {
+			if (subscription.dispatcher != null)
+				subscription.dispatcher.dispatch(listener, e);
+			else if (subscription.method == null)
+				dispatch((SambaPlayerListener) listener, e);
+			else subscription.method.invoke(listener, e);
+		}
+		catch (Exception exp) {
+			Log.i(getClass().getSimpleName(), "Error trying to invoke listener.", exp);
+		}
+	}
+
+	private static synchronized Executor getMainExecutor() {
+		if (mainExecutor == null) {
+			final Handler handler = new Handler(Looper.getMainLooper());
+
+			mainExecutor = new Executor() {
+				@Override
+				public void execute(@NonNull Runnable command) {
+					handler.post(command);
+				}
+			};
+		}
+
+		return mainExecutor;
+	}
+
+	private void publish(Class<?> enumClass, Subscription[][] byType) {
+		Map<Class<?>, Subscription[][]> updated = new HashMap<>(table);
+
+		updated.put(enumClass, byType);
+		table = updated;
+	}
+
+	private static void dispatch(SambaPlayerListener listener, SambaEvent e) {
+		switch ((SambaPlayerListener.EventType) e.getType()) {
+			case LOAD: listener.onLoad(e); break;
+			case DESTROY: listener.onDestroy(e); break;
+			case START: listener.onStart(e); break;
+			case PLAY: listener.onPlay(e); break;
+			case PAUSE: listener.onPause(e); break;
+			case STOP: listener.onStop(e); break;
+			case PROGRESS: listener.onProgress(e); break;
+			case FULLSCREEN: listener.onFullscreen(e); break;
+			case FULLSCREEN_EXIT: listener.onFullscreenExit(e); break;
+			case FINISH: listener.onFinish(e); break;
+			case RESIZE: listener.onResize(e); break;
+			case CLICK: listener.onClick(e); break;
+			case ERROR: listener.onError(e); break;
+			case PORTRAIT: listener.onPortrait(e); break;
+			case LANDSCAPE: listener.onLandscape(e); break;
+			case CAST_CONNECT: listener.onCastConnect(e); break;
+			case CAST_DISCONNECT: listener.onCastDisconnect(e); break;
+			case CAST_PLAY: listener.onCastPlay(e); break;
+			case CAST_PAUSE: listener.onCastPause(e); break;
+			case CAST_FINISH: listener.onCastFinish(e); break;
+		}
+	}
+
+	/**
+	 * Retrieves the listener base class (the one declaring the event types, e.g. `SambaPlayerListener`).
+	 */
+	private static Class<?> getFamily(Class<?> cls) {
+		for (Class<?> c = cls.getSuperclass(); c != null; c = c.getSuperclass())
+			if (getEventTypeEnum(c) != null)
+				return c;
+
+		return null;
+	}
+
+	private static Class<? extends Enum> getEventTypeEnum(Class<?> family) {
+		if (family == SambaPlayerListener.class)
+			return SambaPlayerListener.EventType.class;
+
+		for (Class<?> c : family.getDeclaredClasses())
+			if (c.isEnum() && SambaEventType.class.isAssignableFrom(c))
+				//noinspection unchecked
+				return (Class<? extends Enum>) c;
+
+		return null;
+	}
+
+	/**
+	 * Retrieves (once per listener class) the dispatcher generated for a listener, if any.
+	 */
+	private static SambaListenerDispatcher getDispatcher(Class<?> cls) {
+		Object dispatcher = dispatchers.get(cls);
+
+		if (dispatcher == null) {
+			try {
+				dispatcher = Class.forName(cls.getName().replace('$', '_') + SambaListenerDispatcher.SUFFIX,
+						true, cls.getClassLoader()).newInstance();
+			}
+			catch (Exception | LinkageError e) {
+				dispatcher = NO_DISPATCHER;
+			}
+
+			dispatchers.put(cls, dispatcher);
+		}
+
+		return dispatcher instanceof SambaListenerDispatcher ? (SambaListenerDispatcher) dispatcher : null;
+	}
+
+	/**
+	 * Resolves (once per listener class) the overridden handler of every event type, e.g. PROGRESS: onProgress.
+	 */
+	private static Method[] getHandlers(Class<?> cls, Class<?> family, Class<? extends Enum> enumClass) {
+		Method[] handlers = handlersCache.get(cls);
+
+		if (handlers != null)
+			return handlers;
+
+		Enum[] types = enumClass.getEnumConstants();
+		handlers = new Method[types.length];
+
+		for (Enum type : types) {
+			StringBuilder name = new StringBuilder("on");
+
+			for (String part : type.name().toLowerCase(Locale.ENGLISH).split("_"))
+				name.append(Character.toUpperCase(part.charAt(0))).append(part.substring(1));
+
+			for (Class<?> c = cls; c != family && handlers[type.ordinal()] == null; c = c.getSuperclass()) {
+				try {
+					Method m = c.getDeclaredMethod(name.toString(), SambaEvent.class);
+
+					if (Modifier.isPublic(m.getModifiers())) {
+						m.setAccessible(true);
+						handlers[type.ordinal()] = m;
+					}
+				}
+				catch (NoSuchMethodException ignored) {}
+			}
+		}
+
+		handlersCache.put(cls, handlers);
+		return handlers;
+	}
+
+	/**
+	 * Metrics of the events delivered through queues (listeners not invoked on the posting thread).
+	 */
+	public static class Metrics {
+		private long delivered;
+		private long dropped;
+		private long coalesced;
+		private long queueDepth;
+		private long maxQueueDepth;
+		private long totalLatency;
+		private long maxLatency;
+
+		Metrics() {}
+
+		Metrics(Metrics other) {
+			synchronized (other) {
+				delivered = other.delivered;
+				dropped = other.dropped;
+				coalesced = other.coalesced;
+				queueDepth = other.queueDepth;
+				maxQueueDepth = other.maxQueueDepth;
+				totalLatency = other.totalLatency;
+				maxLatency = other.maxLatency;
+			}
+		}
+
+		/**
+		 * Events delivered.
+		 */
+		public long getDelivered() {
+			return delivered;
+		}
+
+		/**
+		 * Events discarded by full queues.
+		 */
+		public long getDropped() {
+			return dropped;
+		}
+
+		/**
+		 * Events replaced by a newer one of the same type before being delivered.
+		 */
+		public long getCoalesced() {
+			return coalesced;
+		}
+
+		/**
+		 * Events currently pending, among every queue.
+		 */
+		public long getQueueDepth() {
+			return queueDepth;
+		}
+
+		/**
+		 * Highest number of events pending at once.
+		 */
+		public long getMaxQueueDepth() {
+			return maxQueueDepth;
+		}
+
+		/**
+		 * Average time (us) from post until delivery.
+		 */
+		public long getAverageLatency() {
+			return delivered > 0 ? totalLatency / delivered / 1000 : 0;
+		}
+
+		/**
+		 * Longest time (us) from post until delivery.
+		 */
+		public long getMaxLatency() {
+			return maxLatency / 1000;
+		}
+
+		synchronized void addQueued(int count) {
+			queueDepth += count;
+			maxQueueDepth = Math.max(maxQueueDepth, queueDepth);
+		}
+
+		synchronized void addDropped() {
+			++dropped;
+		}
+
+		synchronized void addCoalesced() {
+			++coalesced;
+		}
+
+		synchronized void addDelivery(long latency) {
+			++delivered;
+			--queueDepth;
+			totalLatency += latency;
+			maxLatency = Math.max(maxLatency, latency);
+		}
+	}
+
+	private static class Subscription {
+		// exactly one of them is set
+		final Object listener;
+		final WeakReference<Object> weakListener;
+		final Method method;
+		final SambaListenerDispatcher dispatcher;
+		final Mailbox mailbox;
+		// DESTROY events posted before subscribing
+		final int destroyCount;
+		// sequence of the last sticky event sent, so a replay is skipped once the event (or a newer one) was delivered
+		private long stickySequence;
+
+		Subscription(Object listener, WeakReference<Object> weakListener, Method method,
+					 SambaListenerDispatcher dispatcher, Mailbox mailbox, int destroyCount) {
+			this.listener = listener;
+			this.weakListener = weakListener;
+			this.method = method;
+			this.dispatcher = dispatcher;
+			this.mailbox = mailbox;
+			this.destroyCount = destroyCount;
+		}
+
+		Object getListener() {
+			return weakListener != null ? weakListener.get() : listener;
+		}
+
+		boolean isCleared() {
+			return weakListener != null && weakListener.get() == null;
+		}
+
+		/**
+		 * Marks a sticky event as sent, unless it is not newer than the last one.
+		 */
+		synchronized boolean advance(long sequence) {
+			if (sequence <= stickySequence)
+				return false;
+
+			stickySequence = sequence;
+			return true;
+		}
+	}
+
+	private static class StickyEvent {
+		final SambaEvent event;
+		final long sequence;
+
+		StickyEvent(SambaEvent event, long sequence) {
+			this.event = event;
+			this.sequence = sequence;
+		}
+	}
+
+	private static class Pending {
+		final Subscription subscription;
+		final SambaEvent event;
+		final long time;
+
+		Pending(Subscription subscription, SambaEvent event, long time) {
+			this.subscription = subscription;
+			this.event = event;
+			this.time = time;
+		}
+	}
+
+	/**
+	 * Bounded queue of the events pending to a listener.
+	 * Serial modes drain the queue in a single task, the pooled mode runs a task per event.
+	 */
+	private final class Mailbox implements Runnable {
+		private final DeliveryMode mode;
+		private final int capacity;
+		private final OverflowPolicy policy;
+		private final ArrayDeque<Pending> queue = new ArrayDeque<>();
+		private boolean scheduled;
+		private boolean closed;
+
+		Mailbox(DeliveryMode mode, int capacity, OverflowPolicy policy) {
+			this.mode = mode;
+			this.capacity = capacity;
+			this.policy = policy;
+		}
+
+		void offer(Subscription subscription, SambaEvent e) {
+			boolean schedule;
+
+			synchronized (this) {
+				if (closed)
+					return;
+
+				if (coalesced.contains(e.getType()) && replace(subscription, e))
+					return;
+
+				if (queue.size() < capacity)
+					metrics.addQueued(1);
+				else if (policy == OverflowPolicy.DROP_NEWEST) {
+					metrics.addDropped();
+					return;
+				}
+				else {
+					queue.poll();
+					metrics.addDropped();
+				}
+
+				queue.add(new Pending(subscription, e, System.nanoTime()));
+				schedule = mode == DeliveryMode.ASYNC || !scheduled;
+				scheduled = true;
+			}
+
+			if (schedule)
+				(mode == DeliveryMode.MAIN ? getMainExecutor() : pool).execute(this);
+		}
+
+		@Override
+		public void run() {
+			do {
+				Pending pending;
+
+				synchronized (this) {
+					pending = queue.poll();
+
+					if (pending == null) {
+						scheduled = false;
+						return;
+					}
+				}
+
+				metrics.addDelivery(System.nanoTime() - pending.time);
+				invoke(pending.subscription, pending.event);
+			}
+			while (mode != DeliveryMode.ASYNC);
+		}
+
+		/**
+		 * Moves the pending event of the same type to the end of the queue, carrying the newest data.
+		 */
+		private boolean replace(Subscription subscription, SambaEvent e) {
+			for (Iterator<Pending> it = queue.descendingIterator(); it.hasNext();) {
+				Pending pending = it.next();
+
+				if (pending.subscription == subscription && pending.event.getType() == e.getType()) {
+					it.remove();
+					queue.add(new Pending(subscription, e, pending.time));
+					metrics.addCoalesced();
+					return true;
+				}
+			}
+
+			return false;
+		}
+
+		synchronized void close() {
+			if (closed)
+				return;
+
+			closed = true;
+			metrics.addQueued(-queue.size());
+			queue.clear();
+		}
+	}
+}
@@ -0,0 +1,137 @@
+package com.sambatech.player.event;
+
+import android.support.annotation.NonNull;
+import android.util.Log;
+
+import java.util.Arrays;
+
+/**
+ * Playback progress of a player, an allocation free alternative to PROGRESS events.
+ *
+ * Holds the latest progress (a single, reused state) and notifies each listener at its own interval.
+ * Listeners are kept in a copy-on-write array, so updates iterate them without locking nor allocating.
+ */
+public class SambaProgressChannel {
+
+	/**
+	 * Interval used when none is informed (the player reports progress every 250ms).
+	 */
+	public static final long DEFAULT_INTERVAL_MS = 250;
+
+	private static final long REPORT_PERIOD_MS = 250;
+	// tolerates the report timer jitter (otherwise a late tick would double the interval)
+	private static final long JITTER_MS = 50;
+
+	private volatile Subscription[] subscriptions = new Subscription[0];
+	private volatile long positionMs;
+	private volatile long durationMs;
+	private volatile long bufferedMs;
+
+	/**
+	 * Registers a listener at the default interval.
+	 * @param listener listener object
+	 */
+	public void subscribe(@NonNull SambaProgressListener listener) {
+		subscribe(listener, DEFAULT_INTERVAL_MS);
+	}
+
+	/**
+	 * Registers a listener.
+	 * @param listener listener object
+	 * @param intervalMs Time (ms) between two notifications, rounded up to a whole number of player reports (250ms)
+	 */
+	public synchronized void subscribe(@NonNull SambaProgressListener listener, long intervalMs) {
+		if (intervalMs < 0)
+			throw new IllegalArgumentException("Interval must not be negative");
+
+		Subscription[] updated = Arrays.copyOf(subscriptions, subscriptions.length + 1);
+
+		// a whole number of reports, so the jitter tolerance never anticipates a notification by a report
+		long periods = (intervalMs + REPORT_PERIOD_MS - 1) / REPORT_PERIOD_MS;
+
+		updated[subscriptions.length] = new Subscription(listener, periods * REPORT_PERIOD_MS);
+		subscriptions = updated;
+	}
+
+	/**
+	 * Unregisters a listener.
+	 * @param listener listener object
+	 */
+	public synchronized void unsubscribe(@NonNull SambaProgressListener listener) {
+		Subscription[] current = subscriptions;
+
+		for (int i = current.length; i-- > 0;) {
+			if (current[i].listener == listener) {
+				Subscription[] updated = new Subscription[current.length - 1];
+
+				System.arraycopy(current, 0, updated, 0, i);
+				System.arraycopy(current, i + 1, updated, i, updated.length - i);
+				subscriptions = updated;
+				return;
+			}
+		}
+	}
+
+	public boolean hasListeners() {
+		return subscriptions.length > 0;
+	}
+
+	/**
+	 * Latest reported position (ms).
+	 */
+	public long getPositionMs() {
+		return positionMs;
+	}
+
+	/**
+	 * Latest reported duration (ms).
+	 */
+	public long getDurationMs() {
+		return durationMs;
+	}
+
+	/**
+	 * Latest reported buffered position (ms).
+	 */
+	public long getBufferedMs() {
+		return bufferedMs;
+	}
+
+	/**
+	 * Updates the progress and notifies the listeners whose interval has elapsed (called by the player).
+	 * @param positionMs Current position (ms)
+	 * @param durationMs Media duration (ms)
+	 * @param bufferedMs Buffered position (ms)
+	 * @param now Current time (ms, monotonic)
+	 */
+	public void update(long positionMs, long durationMs, long bufferedMs, long now) {
+		this.positionMs = positionMs;
+		this.durationMs = durationMs;
+		this.bufferedMs = bufferedMs;
+
+		for (Subscription subscription : subscriptions) {
+			if (subscription.lastNotified != 0 && now - subscription.lastNotified < subscription.intervalMs - JITTER_MS)
+				continue;
+
+			subscription.lastNotified = now;
+
+			try {
+				subscription.listener.onProgress(positionMs, durationMs, bufferedMs);
+			}
+			catch (Exception e) {
+				Log.i(getClass().getSimpleName(), "Error trying to invoke listener.", e);
+			}
+		}
+	}
+
+	private static class Subscription {
+		final SambaProgressListener listener;
+		final long intervalMs;
+		long lastNotified;
+
+		Subscription(SambaProgressListener listener, long intervalMs) {
+			this.listener = listener;
+			this.intervalMs = intervalMs;
+		}
+	}
+}
@@ -0,0 +1,15 @@
+package com.sambatech.player.event;
+
+/**
+ * Listener of the playback progress (see `SambaProgressChannel`).
+ */
+public interface SambaProgressListener {
+
+	/**
+	 * Fired up periodically while the media is playing.
+	 * @param positionMs Current position (ms)
+	 * @param durationMs Media duration (ms), `C.TIME_UNSET` when unknown
+	 * @param bufferedMs Buffered position (ms)
+	 */
+	void onProgress(long positionMs, long durationMs, long bufferedMs);
+}
@@ -9,6 +9,7 @@ import com.google.android.exoplayer2.DefaultLoadControl;
 import com.google.android.exoplayer2.DefaultRenderersFactory;
 import com.google.android.exoplayer2.ExoPlayerFactory;
 import com.google.android.exoplayer2.LoadControl;
+import com.google.android.exoplayer2.Player;
 import com.google.android.exoplayer2.SimpleExoPlayer;
 import com.google.android.exoplayer2.drm.DefaultDrmSessionManager;
 import com.google.android.exoplayer2.drm.FrameworkMediaCrypto;
@@ -25,8 +26,10 @@ import com.google.android.exoplayer2.upstream.DefaultDataSourceFactory;
 import com.google.android.exoplayer2.upstream.DefaultHttpDataSourceFactory;
 import com.google.android.exoplayer2.upstream.TransferListener;
 import com.google.android.exoplayer2.util.Util;
+import com.sambatech.player.SambaPrefetcher;
 import com.sambatech.player.model.SambaMediaConfig;
 import com.sambatech.player.offline.SambaDownloadManager;
+import com.sambatech.player.utils.SambaNetworkMonitor;
 
 /**
  * Created by luizbyrro on 29/11/2017.
@@ -44,10 +47,12 @@ public class PlayerInstanceDefault {
 
     private DefaultDrmSessionManager drmSessionManager;
     private FrameworkMediaDrm mediaDrm;
+    private final boolean isDRM;
+    private SimpleExoPlayer player;
 
     public PlayerInstanceDefault(Context context, SambaMediaConfig media) {
 
-        boolean isDRM = media.drmRequest != null;
+        isDRM = media.drmRequest != null;
 
         this.context = context;
         this.mainHandler = new Handler();
@@ -70,8 +75,22 @@ public class PlayerInstanceDefault {
 
         this.renderersFactory = new DefaultRenderersFactory(this.context);
 
+        setMedia(media);
+    }
+
+    /**
+     * Binds the instance to a media, keeping the player, its renderers and the bandwidth estimate.
+     * Must be called before its media source is built.
+     */
+    public void setMedia(SambaMediaConfig media) {
 //        this.mediaDataSourceFactory = new SambaDataSourceFactory(this.context, Util.getUserAgent(this.context, "mediaPlayerSample"), (TransferListener<? super DataSource>) bandwidthMeter);
-        this.mediaDataSourceFactory = new DefaultDataSourceFactory(this.context, Util.getUserAgent(this.context, "mediaPlayerSample"), (TransferListener) bandwidthMeter);
+        // transfers are also reported to the network monitor
+        this.mediaDataSourceFactory = new DefaultDataSourceFactory(this.context, Util.getUserAgent(this.context, "mediaPlayerSample"),
+                SambaNetworkMonitor.getInstance(this.context).wrap((TransferListener) bandwidthMeter));
+
+        // on demand medias may have been prefetched
+        if (!media.isLive)
+            this.mediaDataSourceFactory = SambaPrefetcher.getInstance(this.context).buildDataSourceFactory(this.mediaDataSourceFactory);
     }
 
     private DefaultDrmSessionManager buildOnlineDrmSessionManager(SambaMediaConfig media) throws UnsupportedDrmException {
@@ -114,6 +133,37 @@ public class PlayerInstanceDefault {
 
     
 
+    /**
+     * Whether the instance may be bound to other medias (DRM sessions are media specific).
+     */
+    public boolean isReusable() {
+        return !isDRM;
+    }
+
+    /**
+     * The player created by `createPlayerInstance`, if any.
+     */
+    public SimpleExoPlayer getPlayer() {
+        return player;
+    }
+
+    /**
+     * Stops the player and restores its defaults, so it can be bound to another media.
+     */
+    public void reset() {
+        trackSelector.setParameters(DefaultTrackSelector.Parameters.DEFAULT);
+
+        if (player == null)
+            return;
+
+        player.stop(true);
+        player.setPlayWhenReady(false);
+        player.setPlaybackParameters(null);
+        player.setRepeatMode(Player.REPEAT_MODE_OFF);
+        player.setVolume(1f);
+        player.clearVideoSurface();
+    }
+
     public SimpleExoPlayer createPlayerInstance() {
 
            LoadControl loadControl = new DefaultLoadControl.Builder()
@@ -126,10 +176,12 @@ public class PlayerInstanceDefault {
               .setPrioritizeTimeOverSizeThresholds(true).createDefaultLoadControl();
 
 //        return ExoPlayerFactory.newSimpleInstance(context, null, trackSelector, drmSessionManager);
-        return ExoPlayerFactory.newSimpleInstance(this.context, renderersFactory, trackSelector, loadControl, drmSessionManager);
+        player = ExoPlayerFactory.newSimpleInstance(this.context, renderersFactory, trackSelector, loadControl, drmSessionManager);
+        return player;
     }
 
     public void destroy() {
+        player = null;
         mainHandler = null;
         bandwidthMeter = null;
         adaptiveTrackSelectionFactory = null;
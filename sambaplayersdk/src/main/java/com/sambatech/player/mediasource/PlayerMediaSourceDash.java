@@ -32,7 +32,7 @@ public class PlayerMediaSourceDash extends PlayerMediaSource implements PlayerMe
         MediaSource mediaSource;
 
         if (SambaDownloadManager.getInstance().isConfigured()) {
-            mediaSource = new DashMediaSource.Factory(SambaDownloadManager.getInstance().buildDataSourceFactory())
+            mediaSource = new DashMediaSource.Factory(SambaDownloadManager.getInstance().buildPlaybackDataSourceFactory())
                     .setManifestParser(
                             new FilteringManifestParser<>(new DashManifestParser(), SambaDownloadManager.getInstance().getOfflineStreamKeys(uri)))
                     .createMediaSource(uri);
@@ -22,7 +22,7 @@ public class PlayerMediaSourceExtractor extends PlayerMediaSource implements Pla
         super.setUrl(url);
         Uri uri = Uri.parse(url);
 
-        DataSource.Factory dataSourceFactory = SambaDownloadManager.getInstance().isConfigured() ? SambaDownloadManager.getInstance().buildDataSourceFactory() : this.playerInstanceDefault.mediaDataSourceFactory;
+        DataSource.Factory dataSourceFactory = SambaDownloadManager.getInstance().isConfigured() ? SambaDownloadManager.getInstance().buildPlaybackDataSourceFactory() : this.playerInstanceDefault.mediaDataSourceFactory;
 
         setMediaSource(new ExtractorMediaSource.Factory(dataSourceFactory).createMediaSource(uri));
     }
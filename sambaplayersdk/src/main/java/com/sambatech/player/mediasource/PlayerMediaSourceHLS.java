@@ -33,7 +33,7 @@ public class PlayerMediaSourceHLS extends PlayerMediaSource implements PlayerMed
 
         if (!this.getIsLive() && SambaDownloadManager.getInstance().isConfigured()) {
             mediaSource = new HlsMediaSource.Factory(SambaDownloadManager.getInstance()
-                    .buildDataSourceFactory())
+                    .buildPlaybackDataSourceFactory())
                     .setPlaylistParserFactory(
                             new DefaultHlsPlaylistParserFactory(SambaDownloadManager.getInstance()
                                     .getOfflineStreamKeys(uri)))
@@ -26,4 +26,17 @@ public final class AdsSettings {
 		this.vastLoadTimeout = vastLoadTimeout;
 		this.maxRedirects = maxRedirects;
 	}
+
+	/**
+	 * Copies the settings, so changes to one of them don't affect the other.
+	 */
+	public AdsSettings(AdsSettings settings) {
+		this(settings.vastLoadTimeout, settings.maxRedirects);
+		debugMode = settings.debugMode;
+		rendering.setBitrateKbps(settings.rendering.getBitrateKbps());
+		rendering.setEnablePreloading(settings.rendering.getEnablePreloading());
+		rendering.setMimeTypes(settings.rendering.getMimeTypes());
+		rendering.setPlayAdsAfterTime(settings.rendering.getPlayAdsAfterTime());
+		rendering.setUiElements(settings.rendering.getUiElements());
+	}
 }
@@ -0,0 +1,41 @@
+package com.sambatech.player.model;
+
+import android.support.annotation.NonNull;
+
+/**
+ * Timing report of a batch media request.
+ */
+public class SambaBatchStats {
+
+	/**
+	 * Time (ms) each request took to be answered (success or error), in the same order as the requests.
+	 */
+	public final @NonNull long[] itemLatencies;
+
+	/**
+	 * Time (ms) from the batch start until its last response.
+	 */
+	public final long totalLatency;
+
+	/**
+	 * Number of failed requests.
+	 */
+	public final int failures;
+
+	public SambaBatchStats(@NonNull long[] itemLatencies, long totalLatency, int failures) {
+		this.itemLatencies = itemLatencies;
+		this.totalLatency = totalLatency;
+		this.failures = failures;
+	}
+
+	@Override
+	public String toString() {
+		long max = 0;
+
+		for (long latency : itemLatencies)
+			max = Math.max(max, latency);
+
+		return String.format("SambaBatchStats{items=%s, failures=%s, total=%sms, slowest=%sms}",
+				itemLatencies.length, failures, totalLatency, max);
+	}
+}
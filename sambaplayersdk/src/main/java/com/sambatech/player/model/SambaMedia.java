@@ -2,6 +2,7 @@ package com.sambatech.player.model;
 
 import android.graphics.drawable.Drawable;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 
 import com.google.gson.annotations.Expose;
 
@@ -20,8 +21,13 @@ public class SambaMedia {
 	public String adUrl;
 	@Expose
 	public @NonNull transient AdsSettings adsSettings = new AdsSettings();
+	/**
+	 * @deprecated No longer populated, use {@link #getThumbnail()} instead.
+	 */
+	@Deprecated
 	@Expose
 	public transient Drawable thumb;
+	public String thumbUrl;
 	public float initialTime = 0f;
 	public float duration = 0f;
 	public boolean isLive;
@@ -43,6 +49,7 @@ public class SambaMedia {
 		adUrl = media.adUrl;
 		adsSettings = media.adsSettings;
 		thumb = media.thumb;
+		thumbUrl = media.thumbUrl;
 		initialTime = media.initialTime;
 		duration = media.duration;
 		isLive = media.isLive;
@@ -56,6 +63,16 @@ public class SambaMedia {
 		thumbAudioURL = media.thumbAudioURL;
 	}
 
+	/**
+	 * Retrieves the media thumbnail, which is only downloaded when loaded.
+	 *
+	 * @return The thumbnail handle or null if the media has none
+	 */
+	@Nullable
+	public SambaThumbnail getThumbnail() {
+		return thumbUrl != null ? new SambaThumbnail(thumbUrl) : null;
+	}
+
 	public static class Output {
 		public String url;
 		public String label;
@@ -18,6 +18,7 @@ public class SambaMediaRequest {
 	public @NonNull String[] backupUrls = new String[]{};
 	public @NonNull Environment environment = Environment.PROD;
 	public @NonNull Protocol protocol = Protocol.HTTPS;
+	public @NonNull Priority priority = Priority.NORMAL;
 
 	/**
 	 * Represents a VOD media request.
@@ -29,6 +30,24 @@ public class SambaMediaRequest {
 		this(projectHash, mediaId, false);
 	}
 
+	/**
+	 * Copies a request.
+	 *
+	 * @param request The request to be copied
+	 */
+	public SambaMediaRequest(@NonNull SambaMediaRequest request) {
+		projectHash = request.projectHash;
+		mediaId = request.mediaId;
+		liveChannelId = request.liveChannelId;
+		streamName = request.streamName;
+		streamUrl = request.streamUrl;
+		isStreamAudio = request.isStreamAudio;
+		backupUrls = request.backupUrls.clone();
+		environment = request.environment;
+		protocol = request.protocol;
+		priority = request.priority;
+	}
+
 	/**
 	 * Represents a live stream request.
 	 *
@@ -99,6 +118,16 @@ public class SambaMediaRequest {
 		this.isStreamAudio = isStreamAudio;
 	}
 
+	/**
+	 * Identity of the request, i.e. every field that affects the server response.
+	 *
+	 * @return A key to be used in caches
+	 */
+	public String getKey() {
+		return environment + "|" + protocol + "|" + projectHash + "|" + mediaId + "|" + liveChannelId +
+				"|" + streamName + "|" + streamUrl + "|" + isStreamAudio;
+	}
+
 	@Override
 	public String toString() {
 		return String.format("projectHash: %s, id: %s, streamName: %s, streamUrls: %s, backupUrls (count): %s", projectHash, mediaId, streamName, streamUrl, backupUrls.length);
@@ -135,4 +164,13 @@ public class SambaMediaRequest {
 		HTTP,
 		HTTPS
 	}
+
+	/**
+	 * Order in which pending requests are served (e.g. visible items before prefetches).
+	 */
+	public enum Priority {
+		HIGH,
+		NORMAL,
+		PREFETCH
+	}
 }
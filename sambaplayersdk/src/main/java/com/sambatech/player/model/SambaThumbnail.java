@@ -0,0 +1,78 @@
+package com.sambatech.player.model;
+
+import android.content.Context;
+import android.graphics.drawable.Drawable;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.widget.ImageView;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.load.resource.bitmap.DownsampleStrategy;
+import com.bumptech.glide.request.RequestOptions;
+import com.bumptech.glide.request.target.SimpleTarget;
+import com.bumptech.glide.request.transition.Transition;
+
+/**
+ * Lazily resolved media thumbnail.
+ *
+ * Nothing is downloaded until requested; images are decoded downsampled to the requested size
+ * and kept in the shared (memory and disk) Glide caches.
+ * Loading methods must be called on the main thread.
+ */
+public class SambaThumbnail {
+
+	private final String url;
+
+	public SambaThumbnail(@NonNull String url) {
+		this.url = url;
+	}
+
+	public String getUrl() {
+		return url;
+	}
+
+	/**
+	 * Loads the thumbnail into a view, sized after it.
+	 *
+	 * @param view The target view
+	 */
+	public void into(@NonNull ImageView view) {
+		Glide.with(view)
+				.load(url)
+				.apply(new RequestOptions().downsample(DownsampleStrategy.AT_MOST))
+				.into(view);
+	}
+
+	/**
+	 * Loads the thumbnail for a given size.
+	 *
+	 * @param context Reference to the current context
+	 * @param width Desired width in pixels
+	 * @param height Desired height in pixels
+	 * @param callback Listener for the loaded image
+	 */
+	public void load(@NonNull Context context, int width, int height, @NonNull final Callback callback) {
+		Glide.with(context.getApplicationContext())
+				.load(url)
+				.apply(new RequestOptions().override(width, height).downsample(DownsampleStrategy.AT_MOST))
+				.into(new SimpleTarget<Drawable>(width, height) {
+					@Override
+					public void onResourceReady(@NonNull Drawable resource, @Nullable Transition<? super Drawable> transition) {
+						callback.onThumbnailLoaded(resource);
+					}
+
+					@Override
+					public void onLoadFailed(@Nullable Drawable errorDrawable) {
+						callback.onThumbnailError();
+					}
+				});
+	}
+
+	/**
+	 * Listener for thumbnail loading.
+	 */
+	public interface Callback {
+		void onThumbnailLoaded(@NonNull Drawable thumb);
+		void onThumbnailError();
+	}
+}
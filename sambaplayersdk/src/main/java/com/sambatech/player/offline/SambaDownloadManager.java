@@ -21,6 +21,7 @@ import com.google.android.exoplayer2.upstream.cache.CacheDataSourceFactory;
 import com.google.android.exoplayer2.upstream.cache.NoOpCacheEvictor;
 import com.google.android.exoplayer2.upstream.cache.SimpleCache;
 import com.google.android.exoplayer2.util.Util;
+import com.sambatech.player.SambaPrefetcher;
 import com.sambatech.player.model.SambaMedia;
 import com.sambatech.player.offline.listeners.SambaDownloadListener;
 import com.sambatech.player.offline.listeners.SambaDownloadRequestListener;
@@ -149,6 +150,19 @@ public class SambaDownloadManager {
         return buildReadOnlyCacheDataSource(upstreamFactory, getDownloadCache());
     }
 
+    /**
+     * Builds the data source factory used for playback: downloaded content first, then prefetched content
+     * (see `SambaPrefetcher`) and the network.
+     */
+    public DataSource.Factory buildPlaybackDataSourceFactory() {
+        checkConfig();
+        DefaultDataSourceFactory upstreamFactory = new DefaultDataSourceFactory(
+                applicationInstance.getApplicationContext(), buildHttpDataSourceFactory()
+        );
+        return buildReadOnlyCacheDataSource(SambaPrefetcher.getInstance(applicationInstance)
+                .buildDataSourceFactory(upstreamFactory), getDownloadCache());
+    }
+
 
     HttpDataSource.Factory buildHttpDataSourceFactory() {
         return new DefaultHttpDataSourceFactory(userAgent);
@@ -202,7 +216,7 @@ public class SambaDownloadManager {
         return downloadDirectory;
     }
 
-    private static CacheDataSourceFactory buildReadOnlyCacheDataSource(DefaultDataSourceFactory upstreamFactory, Cache cache) {
+    private static CacheDataSourceFactory buildReadOnlyCacheDataSource(DataSource.Factory upstreamFactory, Cache cache) {
         return new CacheDataSourceFactory(
                 cache,
                 upstreamFactory,
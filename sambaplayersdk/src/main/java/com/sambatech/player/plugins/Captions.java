@@ -11,9 +11,7 @@ import com.google.android.exoplayer2.ui.SubtitleView;
 import com.sambatech.player.R;
 import com.sambatech.player.SambaPlayer;
 import com.sambatech.player.adapter.CaptionsSheetAdapter;
-import com.sambatech.player.event.SambaEvent;
-import com.sambatech.player.event.SambaEventBus;
-import com.sambatech.player.event.SambaPlayerListener;
+import com.sambatech.player.event.SambaProgressListener;
 import com.sambatech.player.model.SambaMedia;
 import com.sambatech.player.utils.Helpers;
 
@@ -25,7 +23,7 @@ import java.util.HashMap;
  *
  * @author Leandro Zanol - 23/1/2017
  */
-public final class Captions extends SambaPlayerListener implements Plugin {
+public final class Captions implements Plugin, SambaProgressListener {
 
 	private SubtitleView _subtitleLayer;
 	private SambaPlayer _player;
@@ -103,10 +101,10 @@ public final class Captions extends SambaPlayerListener implements Plugin {
 			_captionsRequest = media.captions;
 			_config = media.captionsConfig;
 
-			SambaEventBus.subscribe(this);
+			player.getProgressChannel().subscribe(this);
 		}
 		finally {
-			PluginManager.getInstance().notifyPluginLoaded(this);
+			player.getPluginManager().notifyPluginLoaded(this);
 		}
 	}
 
@@ -145,14 +143,15 @@ public final class Captions extends SambaPlayerListener implements Plugin {
 
 	@Override
 	public void onDestroy() {
-		SambaEventBus.unsubscribe(this);
+		if (_player != null)
+			_player.getProgressChannel().unsubscribe(this);
 	}
 
 	@Override
-	public void onProgress(SambaEvent event) {
+	public void onProgress(long positionMs, long durationMs, long bufferedMs) {
 		if (_subtitleLayer == null || !_parsed) return;
 
-		final float time = _player.getCurrentTime();
+		final float time = positionMs/1000f;
 		final int m = (int)(time/60f);
 
 		if (!_captionsMap.containsKey(m)) return;
@@ -19,6 +19,18 @@ public class DrmRequest {
 		this.licenseUrl = licenseUrl;
 	}
 
+	/**
+	 * @param drmRequest The DRM request to be copied.
+	 */
+	public DrmRequest(DrmRequest drmRequest) {
+		licenseUrl = drmRequest.licenseUrl;
+		urlParams = new HashMap<>(drmRequest.urlParams);
+		headerParams = new HashMap<>(drmRequest.headerParams);
+		token = drmRequest.token;
+		provider = drmRequest.provider;
+		drmOfflinePayload = drmRequest.drmOfflinePayload;
+	}
+
 	public String getLicenseUrl() {
 		String params = licenseUrl.contains("?") ? "" : "?";
 		String sep = "";
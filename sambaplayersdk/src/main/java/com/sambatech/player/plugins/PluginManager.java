@@ -7,24 +7,19 @@ import com.sambatech.player.SambaPlayer;
 
 /**
  * Responsible for managing plugins lifecycle.
+ * Each player owns its manager (`SambaPlayer.getPluginManager()`), so players never load or destroy each other's plugins.
  *
  * @author Leandro Zanol - 12/01/2016
  */
 public class PluginManager implements Plugin {
 
-    private static PluginManager instance = new PluginManager();
-
     private Plugin[] plugins;
     private SambaPlayer player;
     private int pluginsLoaded;
     private boolean isLoaded;
     private boolean pendingPlay;
 
-    private PluginManager() {
-    }
-
-    public static PluginManager getInstance() {
-        return instance;
+    public PluginManager() {
     }
 
     public void onLoad(@NonNull SambaPlayer player) {
@@ -65,6 +60,8 @@ public class PluginManager implements Plugin {
     }
 
     public Plugin getPlugin(Class PluginRef) {
+        if (plugins == null) return null;
+
         for (Plugin plugin : plugins)
             if (plugin.getClass() == PluginRef)
                 return plugin;
@@ -76,6 +73,9 @@ public class PluginManager implements Plugin {
      * Notifies plugin load to player.
      */
     void notifyPluginLoaded(Plugin plugin) {
+        // late notification from a plugin already destroyed
+        if (plugins == null) return;
+
         if (++pluginsLoaded >= plugins.length) {
             isLoaded = true;
 
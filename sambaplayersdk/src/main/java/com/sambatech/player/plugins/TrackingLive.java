@@ -9,21 +9,21 @@ import android.util.Log;
 import com.google.android.exoplayer2.ui.SimpleExoPlayerView;
 import com.sambatech.player.R;
 import com.sambatech.player.SambaPlayer;
+import com.sambatech.player.api.SambaHttpClient;
+import com.sambatech.player.api.SambaUrls;
 import com.sambatech.player.event.SambaEvent;
-import com.sambatech.player.event.SambaEventBus;
+import com.sambatech.player.event.SambaListener;
+import com.sambatech.player.event.SambaLocalEventBus;
 import com.sambatech.player.event.SambaPlayerListener;
 import com.sambatech.player.model.SambaMediaConfig;
 
 import org.jose4j.base64url.internal.apache.commons.codec.binary.Base64;
 import org.json.JSONObject;
 
-import java.io.IOException;
-import java.io.InputStream;
-import java.net.HttpURLConnection;
-import java.net.URL;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Scanner;
+import java.util.Map;
 import java.util.Timer;
 import java.util.TimerTask;
 
@@ -44,8 +44,12 @@ class TrackingLive implements Tracking {
     private SttmLive sttmLive;
 
     private Context context;
+    private SambaLocalEventBus eventBus;
 
-    private SambaPlayerListener playerListener = new SambaPlayerListener() {
+    private final SambaPlayerListener playerListener = new PlayerListener();
+
+    @SambaListener
+    class PlayerListener extends SambaPlayerListener {
 
         @Override
         public void onLoad(SambaEvent event) {
@@ -76,7 +80,7 @@ class TrackingLive implements Tracking {
             super.onError(event);
             sttmLive.cancelOnEventTask();
         }
-    };
+    }
 
 
     public void onLoad(@NonNull SambaPlayer player) {
@@ -84,10 +88,11 @@ class TrackingLive implements Tracking {
 
         this.context = player.getContext();
         this.media = (SambaMediaConfig) player.getMedia();
+        this.eventBus = player.getEventBus();
 
         init();
 
-        PluginManager.getInstance().notifyPluginLoaded(this);
+        player.getPluginManager().notifyPluginLoaded(this);
     }
 
     public void onInternalPlayerCreated(@NonNull SimpleExoPlayerView internalPlayer) {
@@ -95,7 +100,11 @@ class TrackingLive implements Tracking {
 
     public void onDestroy() {
         Log.i("track", "destroy");
-        SambaEventBus.unsubscribe(playerListener);
+
+        if (eventBus != null) {
+            eventBus.unsubscribe(playerListener);
+            eventBus = null;
+        }
 
         if (sttmLive != null) {
             sttmLive.destroy();
@@ -109,54 +118,26 @@ class TrackingLive implements Tracking {
         }
 
         if (media.projectHash != null && media.id != null) {
-            SambaEventBus.subscribe(playerListener);
+            eventBus.subscribe(playerListener);
         }
     }
 
     private Sttm2 getSttm2() throws Exception {
+        Map<String, String> headers = new HashMap<>();
+        headers.put("Content-Type", "text/plain");
 
-        InputStream inputStream = null;
-        Scanner scanner = null;
-
-        try {
-
-            URL myURL = new URL(getSttm2RequestUrl());
-            HttpURLConnection conn = (HttpURLConnection) myURL.openConnection();
-            conn.setRequestProperty("Content-Type", "text/plain");
-
-            int responseCode = conn.getResponseCode();
-            if (responseCode >= 200 && responseCode < 299) {
-                inputStream = conn.getInputStream();
-                scanner = new Scanner(inputStream);
-                return getSttm2ResponseFromScanner(scanner);
-            }
-
-        } finally {
-            try {
-                if (inputStream != null)
-                    inputStream.close();
+        SambaHttpClient.Response response = SambaHttpClient.getInstance().get(getSttm2RequestUrl(), headers);
 
-                if (scanner != null)
-                    scanner.close();
-            } catch (IOException e) {
-                Log.w(getClass().getSimpleName(), "Error closing server request", e);
-            }
-        }
-
-        return null;
+        return response.isSuccessful() ? getSttm2FromToken(response.body) : null;
     }
 
 
-    private Sttm2 getSttm2ResponseFromScanner(Scanner scanner) throws Exception {
+    private Sttm2 getSttm2FromToken(String token) throws Exception {
 
-        int delimiter = media.id != null ? Integer.parseInt(media.id.split("(?=\\d[a-zA-Z]*$)")[1].substring(0, 1)) : 0;
+        int delimiter = media.id != null ? SambaUrls.getTokenDelimiter(media.id) : 0;
 
-        Scanner scannerDelimited = scanner.useDelimiter("\\A");
-
-        if (scannerDelimited.hasNext()) {
-            String token = scannerDelimited.next();
-
-            token = token.substring(delimiter, token.length() - delimiter).replaceAll("-", "+").replaceAll("_", "/");
+        if (!token.isEmpty()) {
+            token = token.substring(delimiter, token.length() - delimiter).replace('-', '+').replace('_', '/');
 
             switch (token.length() % 4) {
                 case 0:
@@ -195,7 +176,7 @@ class TrackingLive implements Tracking {
 
         String baseUrl = context.getString(R.string.player_endpoint_prod);
 
-        return String.format("%s%s/jwt/%s", baseUrl, media.projectHash, media.id);
+        return baseUrl + media.projectHash + "/jwt/" + media.id;
     }
 
     private class RequestTrackerLiveTask extends AsyncTask<String, Void, Void> {
@@ -211,15 +192,11 @@ class TrackingLive implements Tracking {
                 if (sttm2 != null && !TextUtils.isEmpty(sttm2.key) && !TextUtils.isEmpty(sttm2.url)) {
                     String sttmUrl = String.format("%s?event=%s&cid=%s&pid=%s&lid=%s&cat=%s&org=%s", sttm2.url, event, media.clientId, media.projectId, media.id, media.categoryId, ORIGIN_SDK_ANDROID);
 
-                    URL url = new URL(sttmUrl);
-
-                    HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-
-                    conn.setRequestMethod("GET");
-                    conn.setRequestProperty("Authorization", "Bearer " + sttm2.key);
-                    conn.setRequestProperty("User-Agent", System.getProperty("http.agent"));
+                    Map<String, String> headers = new HashMap<>();
+                    headers.put("Authorization", "Bearer " + sttm2.key);
+                    headers.put("User-Agent", System.getProperty("http.agent"));
 
-                    conn.getResponseCode();
+                    SambaHttpClient.getInstance().send(sttmUrl, headers);
 
                 }
 
@@ -8,19 +8,23 @@ import android.util.Log;
 
 import com.google.android.exoplayer2.ui.SimpleExoPlayerView;
 import com.sambatech.player.SambaPlayer;
+import com.sambatech.player.api.SambaHttpClient;
 import com.sambatech.player.event.SambaEvent;
-import com.sambatech.player.event.SambaEventBus;
+import com.sambatech.player.event.SambaListener;
+import com.sambatech.player.event.SambaLocalEventBus;
 import com.sambatech.player.event.SambaPlayerListener;
+import com.sambatech.player.event.SambaProgressChannel;
+import com.sambatech.player.event.SambaProgressListener;
 import com.sambatech.player.model.SambaMediaConfig;
 import com.sambatech.player.utils.Helpers;
 
 import java.io.IOException;
-import java.net.URL;
-import java.net.URLConnection;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Timer;
 import java.util.TimerTask;
 import java.util.TreeSet;
@@ -35,8 +39,13 @@ class TrackingVOD implements Tracking {
     private SambaMediaConfig media;
     private Sttm sttm;
     private Context context;
+    private SambaLocalEventBus eventBus;
+    private SambaProgressChannel progressChannel;
 
-    private SambaPlayerListener playerListener = new SambaPlayerListener() {
+    private final SambaPlayerListener playerListener = new PlayerListener();
+
+    @SambaListener
+    class PlayerListener extends SambaPlayerListener {
         @Override
         public void onStart(SambaEvent event) {
             Log.i("sttm", "onstart");
@@ -47,15 +56,17 @@ class TrackingVOD implements Tracking {
         }
 
         @Override
-        public void onProgress(SambaEvent event) {
+        public void onFinish(SambaEvent event) {
             if (sttm != null)
-                sttm.trackProgress((float) event.getDataAll()[0], (float) event.getDataAll()[1]);
+                sttm.trackComplete();
         }
+    }
 
+    private SambaProgressListener progressListener = new SambaProgressListener() {
         @Override
-        public void onFinish(SambaEvent event) {
-            if (sttm != null)
-                sttm.trackComplete();
+        public void onProgress(long positionMs, long durationMs, long bufferedMs) {
+            if (sttm != null && durationMs > 0)
+                sttm.trackProgress(positionMs, durationMs);
         }
     };
 
@@ -63,11 +74,15 @@ class TrackingVOD implements Tracking {
         Log.i("track", "load");
         media = (SambaMediaConfig) player.getMedia();
         context = player.getContext().getApplicationContext();
+        eventBus = player.getEventBus();
+        progressChannel = player.getProgressChannel();
 
-        if (media.projectHash != null && media.id != null)
-            SambaEventBus.subscribe(playerListener);
+        if (media.projectHash != null && media.id != null) {
+            eventBus.subscribe(playerListener);
+            progressChannel.subscribe(progressListener);
+        }
 
-        PluginManager.getInstance().notifyPluginLoaded(this);
+        player.getPluginManager().notifyPluginLoaded(this);
     }
 
     public void onInternalPlayerCreated(@NonNull SimpleExoPlayerView internalPlayer) {
@@ -75,7 +90,16 @@ class TrackingVOD implements Tracking {
 
     public void onDestroy() {
         Log.i("track", "destroy");
-        SambaEventBus.unsubscribe(playerListener);
+
+        if (eventBus != null) {
+            eventBus.unsubscribe(playerListener);
+            eventBus = null;
+        }
+
+        if (progressChannel != null) {
+            progressChannel.unsubscribe(progressListener);
+            progressChannel = null;
+        }
 
         if (sttm != null) {
             sttm.destroy();
@@ -95,14 +119,11 @@ class TrackingVOD implements Tracking {
             try {
                 Log.i(getClass().getSimpleName(), params[0]);
 
-                for (String url : params) {
-                    URL myURL = new URL(url);
-                    URLConnection conn = myURL.openConnection();
-                    conn.setRequestProperty("http.agent", "chrome");
-                    conn.setDoOutput(false);
-                    conn.setDoInput(true);
-                    conn.getInputStream();
-                }
+                Map<String, String> headers = new HashMap<>();
+                headers.put("http.agent", "chrome");
+
+                for (String url : params)
+                    SambaHttpClient.getInstance().send(url, headers);
             } catch (IOException e) {
                 Log.e(getClass().getSimpleName(), "Failed to fetch URL", e);
             }
@@ -149,8 +170,8 @@ class TrackingVOD implements Tracking {
             targets.add("complete");
         }
 
-        void trackProgress(float time, float duration) {
-            int p = (int) (100 * time / duration);
+        void trackProgress(long positionMs, long durationMs) {
+            int p = (int) (100 * positionMs / durationMs);
 
             if (p > 99)
                 p = 99;
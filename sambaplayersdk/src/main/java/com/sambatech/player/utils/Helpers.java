@@ -5,17 +5,15 @@ import android.net.ConnectivityManager;
 import android.net.NetworkInfo;
 import android.os.AsyncTask;
 
+import com.sambatech.player.api.SambaHttpClient;
 import com.sambatech.player.model.SambaMedia;
 
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.net.HttpURLConnection;
-import java.net.URL;
 import java.util.Comparator;
-import java.util.Scanner;
 
 /**
  * Useful stuff for whole SambaPlayer project.
@@ -69,7 +67,7 @@ public final class Helpers {
 
 	public static void requestUrl(String url, RequestCallback callback) {
 		try {
-			requestUrl((HttpURLConnection)new URL(url).openConnection(), callback);
+			requestUrl(SambaHttpClient.getInstance().openConnection(url), callback);
 		}
 		catch (IOException e) {
 			e.printStackTrace();
@@ -80,44 +78,17 @@ public final class Helpers {
 		new AsyncTask<HttpURLConnection, Void, Response>() {
 			@Override
 			protected Response doInBackground(HttpURLConnection... params) {
-				HttpURLConnection con = params[0];
-				InputStream inputStream = null;
-				Scanner scanner = null;
-				Scanner scannerDelimited = null;
-
 				try {
-					con.connect();
-
-					/*System.out.println("Request method: " + con.getRequestMethod());
-					System.out.println("Permission: " + con.getPermission());
-					System.out.println("Response code: " + con.getResponseCode());
-					System.out.println("Response msg: " + con.getResponseMessage());
+					SambaHttpClient.Response response = SambaHttpClient.getInstance().execute(params[0]);
 
-					s = "";
-					for (Map.Entry<String, List<String>> kv : con.getHeaderFields().entrySet())
-						s += kv.getKey() + ": " + kv.getValue() + "\n";
-					System.out.println(s);*/
+					if (!response.isSuccessful())
+						return new Response(null, new SambaHttpClient.HttpException(response.code));
 
-					inputStream = con.getInputStream();
-					scanner = new Scanner(inputStream);
-					scannerDelimited = scanner.useDelimiter("\\A");
-
-					return new Response(scannerDelimited.hasNext() ? scannerDelimited.next() : "", null);
+					return new Response(response.body, null);
 				}
 				catch (Exception e) {
 					return new Response(null, e);
 				}
-				finally {
-					try {
-						if (con != null) con.disconnect();
-						if (inputStream != null) inputStream.close();
-						if (scanner != null) scanner.close();
-						if (scannerDelimited != null) scannerDelimited.close();
-					}
-					catch (Exception e) {
-						e.printStackTrace();
-					}
-				}
 			}
 
 			@Override
@@ -0,0 +1,151 @@
+package com.sambatech.player.utils;
+
+import android.annotation.TargetApi;
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+import android.net.NetworkInfo;
+import android.net.NetworkRequest;
+import android.os.Build;
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+
+import com.google.android.exoplayer2.upstream.DataSource;
+import com.google.android.exoplayer2.upstream.DataSpec;
+import com.google.android.exoplayer2.upstream.TransferListener;
+
+/**
+ * Keeps track of the network state, so error handling can tell an unreachable media from being offline
+ * without probing any server.
+ *
+ * Connectivity is updated on every change notified by the system (network callbacks from API 21,
+ * connectivity broadcasts otherwise) and complemented by the outcome of recent media transfers.
+ */
+public final class SambaNetworkMonitor {
+
+    // a network transfer within this time (ms) proves internet access
+    private static final long RECENT_TRANSFER_MS = 10000;
+
+    private static SambaNetworkMonitor instance;
+
+    private final ConnectivityManager connectivityManager;
+    private volatile boolean connected;
+    private volatile boolean validated;
+    private volatile long lastTransferTime = -RECENT_TRANSFER_MS;
+
+    private SambaNetworkMonitor(Context context) {
+        connectivityManager = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP)
+            registerNetworkCallback();
+        else {
+            context.registerReceiver(new BroadcastReceiver() {
+                @Override
+                public void onReceive(Context context, Intent intent) {
+                    update();
+                }
+            }, new IntentFilter(ConnectivityManager.CONNECTIVITY_ACTION));
+        }
+
+        update();
+    }
+
+    public static synchronized SambaNetworkMonitor getInstance(@NonNull Context context) {
+        if (instance == null)
+            instance = new SambaNetworkMonitor(context.getApplicationContext());
+
+        return instance;
+    }
+
+    /**
+     * Whether there is an active network (internet access is not guaranteed).
+     */
+    public boolean isConnected() {
+        return connected;
+    }
+
+    /**
+     * Whether internet is reachable: the active network was validated by the system (API 23+)
+     * or media has recently been transferred through it.
+     */
+    public boolean isOnline() {
+        return connected && (validated || SystemClock.elapsedRealtime() - lastTransferTime < RECENT_TRANSFER_MS);
+    }
+
+    /**
+     * Wraps a transfer listener (e.g. the bandwidth meter) to also report transfers to the monitor.
+     *
+     * @param listener Listener to be notified as well
+     * @return The wrapping listener
+     */
+    @NonNull
+    public TransferListener wrap(@NonNull final TransferListener listener) {
+        return new TransferListener() {
+            @Override
+            public void onTransferInitializing(DataSource source, DataSpec dataSpec, boolean isNetwork) {
+                listener.onTransferInitializing(source, dataSpec, isNetwork);
+            }
+
+            @Override
+            public void onTransferStart(DataSource source, DataSpec dataSpec, boolean isNetwork) {
+                listener.onTransferStart(source, dataSpec, isNetwork);
+            }
+
+            @Override
+            public void onBytesTransferred(DataSource source, DataSpec dataSpec, boolean isNetwork, int bytesTransferred) {
+                if (isNetwork && bytesTransferred > 0)
+                    lastTransferTime = SystemClock.elapsedRealtime();
+
+                listener.onBytesTransferred(source, dataSpec, isNetwork, bytesTransferred);
+            }
+
+            @Override
+            public void onTransferEnd(DataSource source, DataSpec dataSpec, boolean isNetwork) {
+                listener.onTransferEnd(source, dataSpec, isNetwork);
+            }
+        };
+    }
+
+    @TargetApi(Build.VERSION_CODES.LOLLIPOP)
+    private void registerNetworkCallback() {
+        ConnectivityManager.NetworkCallback callback = new ConnectivityManager.NetworkCallback() {
+            @Override
+            public void onAvailable(Network network) {
+                update();
+            }
+
+            @Override
+            public void onLost(Network network) {
+                update();
+            }
+
+            @Override
+            public void onCapabilitiesChanged(Network network, NetworkCapabilities networkCapabilities) {
+                update();
+            }
+        };
+
+        connectivityManager.registerNetworkCallback(new NetworkRequest.Builder()
+                .addCapability(NetworkCapabilities.NET_CAPABILITY_INTERNET).build(), callback);
+    }
+
+    private void update() {
+        NetworkInfo info = connectivityManager.getActiveNetworkInfo();
+
+        boolean connected = info != null && info.isConnectedOrConnecting();
+        boolean validated = false;
+
+        if (connected && Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+            NetworkCapabilities capabilities = connectivityManager.getNetworkCapabilities(connectivityManager.getActiveNetwork());
+
+            validated = capabilities != null && capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_VALIDATED);
+        }
+
+        this.validated = validated;
+        this.connected = connected;
+    }
+}
@@ -0,0 +1,167 @@
+package com.sambatech.player;
+
+import com.sambatech.player.api.SambaRequestEngine;
+import com.sambatech.player.api.SambaRequestHandle;
+import com.sambatech.player.event.SambaApiCallback;
+import com.sambatech.player.model.SambaMedia;
+import com.sambatech.player.model.SambaMediaRequest;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Playlist items are resolved on the main thread, whatever thread the api delivers on.
+ */
+public class SambaPlaylistTest {
+
+	private ExecutorService main;
+	private Thread mainThread;
+
+	@Before
+	public void setUp() throws Exception {
+		main = Executors.newSingleThreadExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				return mainThread = new Thread(r, "main");
+			}
+		});
+		main.submit(new Runnable() {
+			@Override
+			public void run() {}
+		}).get();
+	}
+
+	@After
+	public void tearDown() {
+		main.shutdownNow();
+	}
+
+	@Test(timeout = 10000)
+	public void deliversOnMainThreadWithBackgroundApiCallbacks() throws Exception {
+		BackgroundApi api = new BackgroundApi();
+		final SambaPlaylist playlist = new SambaPlaylist(api, Arrays.asList(new SambaMediaRequest("project", "media1"),
+				new SambaMediaRequest("project", "media2")), main);
+
+		Result requested = resolve(playlist, 1);
+
+		assertSame(mainThread, requested.thread);
+		assertSame(api.media, requested.media);
+		assertFalse(requested.thread == api.deliveryThread);
+
+		// already resolved: posted as well, not called inline
+		Result cached = resolve(playlist, 1);
+
+		assertSame(mainThread, cached.thread);
+		assertSame(api.media, cached.media);
+		assertFalse(cached.inline);
+		assertEquals(1, api.requestCount);
+	}
+
+	@Test(timeout = 10000)
+	public void dropsResponsesCancelledAfterDelivery() throws Exception {
+		final BackgroundApi api = new BackgroundApi();
+		final SambaPlaylist playlist = new SambaPlaylist(api, Arrays.asList(new SambaMediaRequest("project", "media1")), main);
+		final boolean[] called = new boolean[1];
+
+		// the api delivers while the main thread is busy, then the request is cancelled
+		main.submit(new Runnable() {
+			@Override
+			public void run() {
+				playlist.resolve(0, new SambaApiCallback() {
+					@Override
+					public void onMediaResponse(SambaMedia media) {
+						called[0] = true;
+					}
+				});
+
+				try {
+					assertTrue(api.delivered.await(5, TimeUnit.SECONDS));
+				}
+				catch (InterruptedException e) {
+					throw new RuntimeException(e);
+				}
+
+				playlist.cancel();
+			}
+		}).get();
+
+		// flushes the posted response
+		main.submit(new Runnable() {
+			@Override
+			public void run() {}
+		}).get();
+
+		assertFalse(called[0]);
+		assertEquals(null, playlist.getMedia(0));
+	}
+
+	private Result resolve(final SambaPlaylist playlist, final int index) throws InterruptedException {
+		final Result result = new Result();
+		final CountDownLatch done = new CountDownLatch(1);
+
+		main.execute(new Runnable() {
+			@Override
+			public void run() {
+				playlist.resolve(index, new SambaApiCallback() {
+					@Override
+					public void onMediaResponse(SambaMedia media) {
+						result.thread = Thread.currentThread();
+						result.media = media;
+						done.countDown();
+					}
+				});
+				result.inline = result.thread != null;
+			}
+		});
+
+		done.await();
+		return result;
+	}
+
+	private static class Result {
+		volatile Thread thread;
+		volatile SambaMedia media;
+		volatile boolean inline;
+	}
+
+	/**
+	 * Delivers responses on a worker thread, like an api set with a background callback executor.
+	 */
+	private static class BackgroundApi extends SambaApi {
+		final SambaMedia media = new SambaMedia();
+		final CountDownLatch delivered = new CountDownLatch(1);
+		volatile Thread deliveryThread;
+		volatile int requestCount;
+
+		BackgroundApi() {
+			super(null, null);
+		}
+
+		@Override
+		public SambaRequestHandle requestMedia(SambaMediaRequest request, final SambaApiCallback callback) {
+			++requestCount;
+
+			return SambaRequestEngine.getInstance().execute("localhost", request.priority, new SambaRequestEngine.Task() {
+				@Override
+				public void run(SambaRequestHandle handle) {
+					deliveryThread = Thread.currentThread();
+					callback.onMediaResponse(media);
+					delivered.countDown();
+				}
+			});
+		}
+	}
+}
@@ -0,0 +1,159 @@
+package com.sambatech.player.api;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Conditional GET cache of `SambaHttpClient` with consumers that stop reading before the end of the body.
+ */
+public class SambaHttpClientTest {
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private final SambaHttpClient client = SambaHttpClient.getInstance();
+
+	@Before
+	public void setUp() {
+		client.clearCache();
+	}
+
+	@Test
+	public void keepsBodyReadPartially() throws IOException {
+		byte[] body = "{\"title\":\"Samba\"}\n\n".getBytes(UTF8);
+		FakeConnection first = new FakeConnection("http://api.test/media/1", HttpURLConnection.HTTP_OK, body, "\"v1\"");
+
+		InputStream in = client.open(first);
+
+		// a streaming parser stops at the end of the JSON value
+		assertEquals('{', in.read());
+		in.close();
+
+		assertTrue(first.body.drained);
+
+		FakeConnection second = new FakeConnection("http://api.test/media/1", HttpURLConnection.HTTP_NOT_MODIFIED, new byte[0], null);
+
+		assertArrayEquals(body, readFully(client.open(second)));
+		assertEquals("\"v1\"", second.getRequestProperty("If-None-Match"));
+	}
+
+	@Test
+	public void skipsBodyLargerThanTheCaptureLimit() throws IOException {
+		byte[] body = new byte[1024 * 1024];
+		FakeConnection first = new FakeConnection("http://api.test/media/2", HttpURLConnection.HTTP_OK, body, "\"v1\"");
+
+		Arrays.fill(body, (byte) ' ');
+
+		InputStream in = client.open(first);
+
+		assertEquals(' ', in.read());
+		in.close();
+
+		FakeConnection second = new FakeConnection("http://api.test/media/2", HttpURLConnection.HTTP_OK, body, "\"v1\"");
+
+		client.open(second).close();
+
+		assertNull(second.getRequestProperty("If-None-Match"));
+	}
+
+	private static byte[] readFully(InputStream in) throws IOException {
+		try {
+			byte[] buffer = new byte[4096];
+			int size = 0;
+			int n;
+
+			while ((n = in.read(buffer, size, buffer.length - size)) != -1)
+				if ((size += n) == buffer.length)
+					buffer = Arrays.copyOf(buffer, size * 2);
+
+			return Arrays.copyOf(buffer, size);
+		} finally {
+			in.close();
+		}
+	}
+
+	private static class Body extends ByteArrayInputStream {
+		boolean drained;
+
+		Body(byte[] data) {
+			super(data);
+		}
+
+		@Override
+		public synchronized int read(byte[] b, int off, int len) {
+			int n = super.read(b, off, len);
+
+			if (n == -1)
+				drained = true;
+
+			return n;
+		}
+	}
+
+	private static class FakeConnection extends HttpURLConnection {
+		final Body body;
+		private final Map<String, String> requestProperties = new HashMap<>();
+		private final int code;
+		private final String etag;
+
+		FakeConnection(String url, int code, byte[] body, String etag) throws IOException {
+			super(new URL(url));
+			this.code = code;
+			this.body = new Body(body);
+			this.etag = etag;
+		}
+
+		@Override
+		public int getResponseCode() {
+			connected = true;
+			return code;
+		}
+
+		@Override
+		public InputStream getInputStream() {
+			return body;
+		}
+
+		@Override
+		public String getHeaderField(String name) {
+			return "ETag".equalsIgnoreCase(name) ? etag : null;
+		}
+
+		@Override
+		public void setRequestProperty(String key, String value) {
+			requestProperties.put(key, value);
+		}
+
+		@Override
+		public String getRequestProperty(String key) {
+			return requestProperties.get(key);
+		}
+
+		@Override
+		public void connect() {
+			connected = true;
+		}
+
+		@Override
+		public void disconnect() {}
+
+		@Override
+		public boolean usingProxy() {
+			return false;
+		}
+	}
+}
@@ -0,0 +1,104 @@
+package com.sambatech.player.api;
+
+import com.sambatech.player.model.SambaMediaConfig;
+import com.sambatech.player.model.SambaMediaRequest;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.Charset;
+import java.util.Locale;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Latency and allocations of the streaming parser against the former `JSONObject` based one (`LegacyMediaParser`),
+ * both starting from the bytes of a representative VOD response token (`src/test/resources/media/vod.json`).
+ *
+ * Results are printed; only allocations are asserted (timings are too noisy for a unit test).
+ */
+public class SambaMediaParserBenchmark {
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+	private static final int WARMUP_ITERATIONS = 2000;
+	private static final int ITERATIONS = 5000;
+
+	@Test
+	public void parsesFasterAndAllocatesLessThanLegacy() throws Exception {
+		final SambaMediaRequest request = new SambaMediaRequest("964b56b4b184c2a29e3c2065a7a15038", "4a48d2ea922217a3d91771f2acf56fdf");
+		final byte[] token = SambaMediaParserTest.encode(SambaMediaParserTest.readResource("vod.json"), request).getBytes(UTF8);
+		final int delimiter = SambaMediaParserTest.delimiter(request);
+
+		Parser legacy = new Parser() {
+			@Override
+			public SambaMediaConfig parse() throws Exception {
+				return LegacyMediaParser.parse(new String(token, UTF8), request);
+			}
+		};
+
+		Parser streaming = new Parser() {
+			@Override
+			public SambaMediaConfig parse() throws Exception {
+				return SambaMediaParser.parse(new SambaTokenInputStream(new ByteArrayInputStream(token), delimiter), request);
+			}
+		};
+
+		run(legacy, WARMUP_ITERATIONS);
+		run(streaming, WARMUP_ITERATIONS);
+
+		Result legacyResult = run(legacy, ITERATIONS);
+		Result streamingResult = run(streaming, ITERATIONS);
+
+		System.out.println(String.format(Locale.ENGLISH, "media parsing (%d bytes token): legacy %s, streaming %s",
+				token.length, legacyResult, streamingResult));
+
+		if (legacyResult.bytes >= 0 && streamingResult.bytes >= 0)
+			assertTrue(streamingResult.toString(), streamingResult.bytes < legacyResult.bytes);
+	}
+
+	private static Result run(Parser parser, int iterations) throws Exception {
+		long bytes = getAllocatedBytes();
+		long time = System.nanoTime();
+
+		for (int i = 0; i < iterations; ++i)
+			assertNotNull(parser.parse());
+
+		time = System.nanoTime() - time;
+
+		long allocated = getAllocatedBytes();
+
+		return new Result(time / iterations, bytes >= 0 && allocated >= 0 ? (allocated - bytes) / iterations : -1);
+	}
+
+	/**
+	 * Bytes allocated by the current thread so far or -1 when the JVM does not tell (HotSpot only).
+	 */
+	private static long getAllocatedBytes() {
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+
+		return bean instanceof com.sun.management.ThreadMXBean
+				? ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId()) : -1;
+	}
+
+	private interface Parser {
+		SambaMediaConfig parse() throws Exception;
+	}
+
+	private static class Result {
+		final long nanos;
+		final long bytes;
+
+		Result(long nanos, long bytes) {
+			this.nanos = nanos;
+			this.bytes = bytes;
+		}
+
+		@Override
+		public String toString() {
+			return String.format(Locale.ENGLISH, "%.1f us, %.1f KB allocated per parse", nanos / 1000f, bytes / 1024f);
+		}
+	}
+}
@@ -0,0 +1,128 @@
+package com.sambatech.player.api;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.sambatech.player.model.SambaMediaConfig;
+import com.sambatech.player.model.SambaMediaRequest;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Base64;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the streaming parser against the former `JSONObject` based one (`LegacyMediaParser`),
+ * running both over the same tokens built from representative API responses (`src/test/resources/media`).
+ */
+public class SambaMediaParserTest {
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	@Test
+	public void parsesVodLikeLegacy() throws Exception {
+		assertEquivalent("vod.json", new SambaMediaRequest("964b56b4b184c2a29e3c2065a7a15038", "4a48d2ea922217a3d91771f2acf56fdf"));
+	}
+
+	@Test
+	public void parsesLiveLikeLegacy() throws Exception {
+		assertEquivalent("live.json", new SambaMediaRequest("964b56b4b184c2a29e3c2065a7a15038", "8a2bd6e8b5bd1d1a17e1b7eb0f7e1e0c", true));
+	}
+
+	@Test
+	public void parsesAudioLikeLegacy() throws Exception {
+		assertEquivalent("audio.json", new SambaMediaRequest("964b56b4b184c2a29e3c2065a7a15038", "0632f26a442ba9ba3bb9067a45e77ef9"));
+	}
+
+	@Test
+	public void ignoresUnsupportedQualifier() throws Exception {
+		SambaMediaRequest request = new SambaMediaRequest("964b56b4b184c2a29e3c2065a7a15038", "4a48d2ea922217a3d91771f2acf56fdf");
+		String json = readResource("vod.json").replace("\"VIDEO\"", "\"IMAGE\"");
+
+		assertNull(LegacyMediaParser.parse(encode(json, request), request));
+		assertNull(parse(encode(json, request), request));
+	}
+
+	@Test(expected = IOException.class)
+	public void failsOnIncompleteResponse() throws Exception {
+		SambaMediaRequest request = new SambaMediaRequest("964b56b4b184c2a29e3c2065a7a15038", "4a48d2ea922217a3d91771f2acf56fdf");
+
+		parse(encode("{\"qualifier\":\"VIDEO\",\"title\":\"Samba\"}", request), request);
+	}
+
+	private static void assertEquivalent(String resource, SambaMediaRequest request) throws Exception {
+		String json = readResource(resource);
+
+		for (SambaMediaRequest.Protocol protocol : SambaMediaRequest.Protocol.values()) {
+			request.protocol = protocol;
+
+			String token = encode(json, request);
+			SambaMediaConfig expected = LegacyMediaParser.parse(token, request);
+			SambaMediaConfig actual = parse(token, request);
+
+			assertNotNull(resource, expected);
+			assertNotNull(resource, actual);
+			assertTrue(resource, expected.request == actual.request);
+			assertEquals(resource + " over " + protocol, toJson(expected), toJson(actual));
+		}
+	}
+
+	private static SambaMediaConfig parse(String token, SambaMediaRequest request) throws IOException {
+		InputStream in = new ByteArrayInputStream(token.getBytes(UTF8));
+
+		return SambaMediaParser.parse(new SambaTokenInputStream(in, delimiter(request)), request);
+	}
+
+	/**
+	 * Builds the token as served by the API: URL-safe Base64 wrapped by junk of the media's delimiter length.
+	 */
+	static String encode(String json, SambaMediaRequest request) {
+		int delimiter = delimiter(request);
+		StringBuilder junk = new StringBuilder();
+
+		for (int i = 0; i < delimiter; ++i)
+			junk.append((char) ('k' + i));
+
+		return junk + Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(UTF8)) + junk;
+	}
+
+	static int delimiter(SambaMediaRequest request) {
+		return request.mediaId != null ? SambaUrls.getTokenDelimiter(request.mediaId) : 0;
+	}
+
+	/**
+	 * Serializes every persistent field but the (random) session ID and the request (checked by identity).
+	 */
+	private static JsonObject toJson(SambaMediaConfig media) {
+		JsonObject json = new Gson().toJsonTree(media).getAsJsonObject();
+		json.remove("sessionId");
+		json.remove("request");
+		return json;
+	}
+
+	static String readResource(String name) throws IOException {
+		InputStream in = SambaMediaParserTest.class.getResourceAsStream("/media/" + name);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[4096];
+		int n;
+
+		assertNotNull(name, in);
+
+		try {
+			while ((n = in.read(buffer)) != -1)
+				out.write(buffer, 0, n);
+		} finally {
+			in.close();
+		}
+
+		return new String(out.toByteArray(), UTF8);
+	}
+}
@@ -0,0 +1,102 @@
+package com.sambatech.player.api;
+
+import com.sambatech.player.model.SambaMediaRequest;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertTrue;
+
+public class SambaRequestEngineTest {
+
+	private final SambaRequestEngine engine = SambaRequestEngine.getInstance();
+	private int poolSize;
+	private int maxRequestsPerHost;
+
+	@Before
+	public void setUp() {
+		poolSize = engine.getPoolSize();
+		maxRequestsPerHost = engine.getMaxRequestsPerHost();
+
+		// two workers: one for the running job and one for parking the others
+		engine.setPoolSize(2);
+	}
+
+	@After
+	public void tearDown() {
+		engine.setPoolSize(poolSize);
+		engine.setMaxRequestsPerHost(maxRequestsPerHost);
+	}
+
+	@Test(timeout = 10000)
+	public void resumesHostQueueWhenDequeuedJobIsCancelled() throws InterruptedException {
+		engine.setMaxRequestsPerHost(1);
+		assertResumesAfterCancellingDequeuedJob("host.test", null);
+	}
+
+	@Test(timeout = 10000)
+	public void resumesLimitQueueWhenDequeuedJobIsCancelled() throws InterruptedException {
+		assertResumesAfterCancellingDequeuedJob("limit.test", new SambaRequestEngine.Limit(1));
+	}
+
+	/**
+	 * A parked job is resubmitted once the running one finishes, but gets cancelled before running:
+	 * the job parked after it must not wait for unrelated traffic.
+	 */
+	private void assertResumesAfterCancellingDequeuedJob(String host, SambaRequestEngine.Limit limit)
+			throws InterruptedException {
+		CountDownLatch releaseRunning = new CountDownLatch(1);
+		CountDownLatch releaseWorkers = new CountDownLatch(1);
+		CountDownLatch parked = new CountDownLatch(1);
+		CountDownLatch resubmitted = new CountDownLatch(1);
+		CountDownLatch lastDone = new CountDownLatch(1);
+
+		engine.execute(host, SambaMediaRequest.Priority.NORMAL, new Blocking(null, releaseRunning), limit);
+
+		SambaRequestHandle cancelled = engine.execute(host, SambaMediaRequest.Priority.NORMAL, new Blocking(null, null), limit);
+
+		engine.execute(host, SambaMediaRequest.Priority.NORMAL, new Blocking(lastDone, null), limit);
+
+		// runs once both jobs above were parked, then keeps the second worker busy
+		engine.execute("other1.test", SambaMediaRequest.Priority.NORMAL, new Blocking(parked, releaseWorkers));
+		assertTrue(parked.await(5, TimeUnit.SECONDS));
+
+		// takes the worker of the finishing job ahead of the resubmitted one
+		engine.execute("other2.test", SambaMediaRequest.Priority.HIGH, new Blocking(resubmitted, releaseWorkers));
+		releaseRunning.countDown();
+		assertTrue(resubmitted.await(5, TimeUnit.SECONDS));
+
+		cancelled.cancel();
+		releaseWorkers.countDown();
+
+		assertTrue(lastDone.await(5, TimeUnit.SECONDS));
+	}
+
+	private static class Blocking implements SambaRequestEngine.Task {
+		private final CountDownLatch started;
+		private final CountDownLatch release;
+
+		Blocking(CountDownLatch started, CountDownLatch release) {
+			this.started = started;
+			this.release = release;
+		}
+
+		@Override
+		public void run(SambaRequestHandle handle) {
+			if (started != null)
+				started.countDown();
+
+			try {
+				if (release != null)
+					release.await();
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+}
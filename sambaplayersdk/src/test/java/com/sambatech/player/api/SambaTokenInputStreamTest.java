@@ -0,0 +1,137 @@
+package com.sambatech.player.api;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Base64;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class SambaTokenInputStreamTest {
+
+	private static final Charset ASCII = Charset.forName("US-ASCII");
+
+	@Test
+	public void decodesUrlSafeTokenWithoutPadding() throws IOException {
+		for (int size = 0; size < 64; ++size) {
+			byte[] data = randomBytes(size, size);
+			String token = "abc" + Base64.getUrlEncoder().withoutPadding().encodeToString(data) + "xyz";
+
+			assertArrayEquals("size " + size, data, decode(new ByteArrayInputStream(token.getBytes(ASCII)), 3));
+		}
+	}
+
+	@Test
+	public void decodesStandardTokenWithPadding() throws IOException {
+		for (int size = 0; size < 64; ++size) {
+			byte[] data = randomBytes(size, size);
+			String token = "##" + Base64.getEncoder().encodeToString(data) + "##";
+
+			assertArrayEquals("size " + size, data, decode(new ByteArrayInputStream(token.getBytes(ASCII)), 2));
+		}
+	}
+
+	@Test
+	public void ignoresUnknownCharacters() throws IOException {
+		byte[] data = "{\"title\":\"Samba\"}".getBytes(ASCII);
+		String encoded = Base64.getUrlEncoder().withoutPadding().encodeToString(data);
+		StringBuilder token = new StringBuilder("0");
+
+		for (int i = 0; i < encoded.length(); ++i)
+			token.append(encoded.charAt(i)).append(i % 3 == 0 ? "\r\n" : i % 3 == 1 ? " " : "é");
+
+		token.append('0');
+
+		assertArrayEquals(data, decode(new ByteArrayInputStream(token.toString().getBytes("UTF-8")), 1));
+	}
+
+	@Test
+	public void holdsDelimiterBackAcrossReadBoundaries() throws IOException {
+		// longer than the internal buffer, so leading and trailing junk meet several refills
+		byte[] data = randomBytes(20000, 1);
+		String encoded = Base64.getUrlEncoder().withoutPadding().encodeToString(data);
+
+		for (int delimiter = 0; delimiter < 10; ++delimiter) {
+			String token = junk(delimiter) + encoded + junk(delimiter);
+
+			for (int chunk : new int[]{1, 2, 3, 7, 4096, 8191, 8192, 8193}) {
+				InputStream in = new ChunkedInputStream(token.getBytes(ASCII), chunk);
+
+				assertArrayEquals("delimiter " + delimiter + ", chunk " + chunk, data, decode(in, delimiter));
+			}
+		}
+	}
+
+	@Test
+	public void decodesNothingFromJunkOnly() throws IOException {
+		assertEquals(0, decode(new ByteArrayInputStream("12345".getBytes(ASCII)), 3).length);
+		assertEquals(0, decode(new ByteArrayInputStream(new byte[0]), 3).length);
+	}
+
+	@Test
+	public void returnsEndOfStreamOnBulkReads() throws IOException {
+		InputStream in = new SambaTokenInputStream(new ByteArrayInputStream("xTWFyeQ".getBytes(ASCII)), 1);
+		byte[] buffer = new byte[16];
+
+		assertEquals(3, in.read(buffer, 0, buffer.length));
+		assertEquals("Mar", new String(buffer, 0, 3, ASCII));
+		assertEquals(-1, in.read(buffer, 0, buffer.length));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsNegativeDelimiter() {
+		new SambaTokenInputStream(new ByteArrayInputStream(new byte[0]), -1);
+	}
+
+	private static byte[] decode(InputStream raw, int delimiter) throws IOException {
+		InputStream in = new SambaTokenInputStream(raw, delimiter);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[100];
+		int n;
+
+		while ((n = in.read(buffer, 0, buffer.length)) != -1)
+			out.write(buffer, 0, n);
+
+		in.close();
+
+		return out.toByteArray();
+	}
+
+	private static byte[] randomBytes(int size, long seed) {
+		byte[] data = new byte[size];
+		new Random(seed).nextBytes(data);
+		return data;
+	}
+
+	private static String junk(int length) {
+		StringBuilder sb = new StringBuilder();
+
+		for (int i = 0; i < length; ++i)
+			sb.append((char) ('a' + i));
+
+		return sb.toString();
+	}
+
+	/**
+	 * Returns at most `chunk` bytes per read, as a network stream would.
+	 */
+	private static class ChunkedInputStream extends ByteArrayInputStream {
+		private final int chunk;
+
+		ChunkedInputStream(byte[] data, int chunk) {
+			super(data);
+			this.chunk = chunk;
+		}
+
+		@Override
+		public synchronized int read(byte[] b, int off, int len) {
+			return super.read(b, off, Math.min(len, chunk));
+		}
+	}
+}
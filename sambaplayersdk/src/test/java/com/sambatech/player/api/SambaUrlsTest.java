@@ -0,0 +1,95 @@
+package com.sambatech.player.api;
+
+import com.sambatech.player.model.SambaMediaRequest;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Checks the URL helpers against the regular expressions they replaced.
+ */
+public class SambaUrlsTest {
+
+	private static final String[] URLS = {
+			"",
+			"http",
+			"https",
+			"httpss",
+			"HTTP://upper.case/",
+			"http://pvbps-sambavideos.akamaized.net/account/1/video.mp4",
+			"https://svbps-sambavideos.akamaized.net/account/1/playlist.m3u8",
+			"//no.scheme/video.mp4",
+			"http://host/path?redirect=https://other/http/file",
+			"hhttp://x/httphttps",
+			"ftp://host/file",
+			"http://liveabr2.sambatech.com.br/abr/sbtabr_8fcdc5f0/livestreamabrsbt.f4m",
+			"https://liveabr2.sambatech.com.br/abr/manifest_1080.f4m?token=abc",
+			"http://host/.f4m",
+			"http://host/live-stream.f4m",
+			"http://host/live_stream.F4M",
+			"http://host/manifest.f4m.bak",
+			"http://host/manifest.f4m\n",
+			"http://host/manifest.f4m\r\n",
+			"http://host/manifest.f4m\n\n",
+			"http://host/manifest.f4m ",
+			"http://host/manifestá.f4m",
+			"manifest.f4m",
+			".f4m",
+			"f4m"
+	};
+
+	private static final String[] MEDIA_IDS = {
+			"4a48d2ea922217a3d91771f2acf56fdf",
+			"0632f26a442ba9ba3bb9067a45e77ef9",
+			"abc1",
+			"ab12cd",
+			"a1b2c3D",
+			"x9",
+			"5abc",
+			"5",
+			"abc",
+			"",
+			"ab1é",
+			"ab1\n",
+			"ab1cd\r\n",
+			"ab1 "
+	};
+
+	@Test
+	public void normalizesProtocolLikeRegex() {
+		for (String url : URLS)
+			for (SambaMediaRequest.Protocol protocol : SambaMediaRequest.Protocol.values())
+				assertEquals(url + " to " + protocol, url.replaceAll("(https?)", protocol.toString().toLowerCase()),
+						SambaUrls.normalizeProtocol(url, protocol));
+	}
+
+	@Test
+	public void fallsBackFromHdsLikeRegex() {
+		for (String url : URLS)
+			assertEquals(url, url.replaceAll("[\\w]+\\.f4m$", "playlist.m3u8"), SambaUrls.fallbackFromHds(url));
+	}
+
+	@Test
+	public void readsTokenDelimiterLikeRegex() {
+		for (String mediaId : MEDIA_IDS) {
+			Integer expected;
+
+			try {
+				expected = Integer.parseInt(mediaId.split("(?=\\d[a-zA-Z]*$)")[1].substring(0, 1));
+			} catch (RuntimeException e) {
+				expected = null;
+			}
+
+			try {
+				int delimiter = SambaUrls.getTokenDelimiter(mediaId);
+
+				assertEquals(mediaId, expected, Integer.valueOf(delimiter));
+			} catch (IllegalArgumentException e) {
+				if (expected != null)
+					fail(mediaId + ": expected " + expected + " but got " + e);
+			}
+		}
+	}
+}
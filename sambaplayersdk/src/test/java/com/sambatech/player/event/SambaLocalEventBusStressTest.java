@@ -0,0 +1,127 @@
+package com.sambatech.player.event;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Posts PROGRESS from many threads while other threads keep subscribing and unsubscribing listeners:
+ * lock-free posting must neither lose events of steady listeners nor fail on concurrent table changes.
+ */
+public class SambaLocalEventBusStressTest {
+
+	private static final int POSTERS = 8;
+	private static final int POSTS_PER_THREAD = 50000;
+	private static final int STEADY_LISTENERS = 4;
+	private static final int CHURNERS = 4;
+
+	@Test(timeout = 60000)
+	public void deliversEveryPostWhileListenersChurn() throws Exception {
+		final SambaLocalEventBus bus = new SambaLocalEventBus(null);
+		final AtomicLong steadyDeliveries = new AtomicLong();
+		final AtomicLong churnDeliveries = new AtomicLong();
+		final AtomicLong churnCycles = new AtomicLong();
+		final AtomicReference<Throwable> failure = new AtomicReference<>();
+		final AtomicBoolean stop = new AtomicBoolean();
+		final CountDownLatch start = new CountDownLatch(1);
+
+		for (int i = 0; i < STEADY_LISTENERS; ++i) {
+			bus.subscribe(new SambaPlayerListener() {
+				@Override
+				public void onProgress(SambaEvent event) {
+					steadyDeliveries.incrementAndGet();
+				}
+			});
+		}
+
+		Thread[] churners = new Thread[CHURNERS];
+
+		for (int i = 0; i < churners.length; ++i) {
+			final boolean weak = i % 2 == 1;
+
+			churners[i] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						start.await();
+
+						while (!stop.get()) {
+							SambaPlayerListener listener = new SambaPlayerListener() {
+								@Override
+								public void onProgress(SambaEvent event) {
+									churnDeliveries.incrementAndGet();
+								}
+
+								@Override
+								public void onPlay(SambaEvent event) {}
+							};
+
+							if (weak)
+								bus.subscribeWeak(listener);
+							else bus.subscribe(listener);
+
+							bus.unsubscribe(listener);
+							churnCycles.incrementAndGet();
+						}
+					} catch (Throwable e) {
+						failure.compareAndSet(null, e);
+					}
+				}
+			});
+			churners[i].start();
+		}
+
+		Thread[] posters = new Thread[POSTERS];
+
+		for (int i = 0; i < posters.length; ++i) {
+			posters[i] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					SambaEvent event = new SambaEvent(SambaPlayerListener.EventType.PROGRESS, 1f, 2f);
+
+					try {
+						start.await();
+
+						for (int j = 0; j < POSTS_PER_THREAD; ++j)
+							bus.post(event);
+					} catch (Throwable e) {
+						failure.compareAndSet(null, e);
+					}
+				}
+			});
+			posters[i].start();
+		}
+
+		start.countDown();
+
+		for (Thread poster : posters)
+			poster.join();
+
+		stop.set(true);
+
+		for (Thread churner : churners)
+			churner.join();
+
+		assertNull(failure.get());
+		assertEquals((long) POSTERS * POSTS_PER_THREAD * STEADY_LISTENERS, steadyDeliveries.get());
+		assertTrue(churnCycles.get() > 0);
+		assertTrue(churnDeliveries.get() <= (long) POSTERS * POSTS_PER_THREAD * churnCycles.get());
+
+		// every churned subscription is gone, the steady ones are intact
+		assertFalse(bus.hasSubscribers(SambaPlayerListener.EventType.PLAY));
+		assertTrue(bus.hasSubscribers(SambaPlayerListener.EventType.PROGRESS));
+
+		steadyDeliveries.set(0);
+		bus.post(new SambaEvent(SambaPlayerListener.EventType.PROGRESS, 1f, 2f));
+
+		assertEquals(STEADY_LISTENERS, steadyDeliveries.get());
+	}
+}
@@ -0,0 +1,396 @@
+package com.sambatech.player.event;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Dispatch table of `SambaLocalEventBus`: events reach the handler of their type (by ordinal, per family)
+ * and listener families are resolved through the class hierarchy.
+ */
+public class SambaLocalEventBusTest {
+
+	@Test
+	public void dispatchesEveryPlayerEventToItsHandler() {
+		SambaLocalEventBus bus = new SambaLocalEventBus(null);
+		RecordingListener listener = new RecordingListener();
+
+		bus.subscribe(listener);
+
+		for (SambaPlayerListener.EventType type : SambaPlayerListener.EventType.values())
+			bus.post(new SambaEvent(type, type.name()));
+
+		SambaPlayerListener.EventType[] types = SambaPlayerListener.EventType.values();
+
+		assertEquals(types.length, listener.handled.size());
+
+		for (int i = 0; i < types.length; ++i) {
+			assertSame(types[i], listener.handled.get(i));
+			assertSame(types[i], listener.events.get(i).getType());
+			assertEquals(types[i].name(), listener.events.get(i).getData());
+		}
+	}
+
+	@Test
+	public void subscribesOnlyOverriddenHandlers() {
+		SambaLocalEventBus bus = new SambaLocalEventBus(null);
+		final List<SambaEvent> events = new ArrayList<>();
+
+		bus.subscribe(new SambaPlayerListener() {
+			@Override
+			public void onPlay(SambaEvent event) {
+				events.add(event);
+			}
+		});
+
+		assertTrue(bus.hasSubscribers(SambaPlayerListener.EventType.PLAY));
+		assertFalse(bus.hasSubscribers(SambaPlayerListener.EventType.PROGRESS));
+
+		bus.post(new SambaEvent(SambaPlayerListener.EventType.PROGRESS));
+		bus.post(new SambaEvent(SambaPlayerListener.EventType.PLAY));
+
+		assertEquals(1, events.size());
+		assertSame(SambaPlayerListener.EventType.PLAY, events.get(0).getType());
+	}
+
+	@Test
+	public void resolvesFamilyThroughIntermediateClasses() {
+		SambaLocalEventBus bus = new SambaLocalEventBus(null);
+		LeafListener listener = new LeafListener();
+
+		bus.subscribe(listener);
+		bus.post(new SambaEvent(SambaPlayerListener.EventType.PLAY));
+		bus.post(new SambaEvent(SambaPlayerListener.EventType.PAUSE));
+		bus.post(new SambaEvent(SambaPlayerListener.EventType.FINISH));
+
+		assertEquals("leaf:PLAY, base:PAUSE, leaf:FINISH", listener.calls());
+	}
+
+	@Test
+	public void dispatchesOtherFamiliesByTheirOwnOrdinals() {
+		SambaLocalEventBus bus = new SambaLocalEventBus(null);
+		CustomListenerImpl custom = new CustomListenerImpl();
+		RecordingListener player = new RecordingListener();
+
+		bus.subscribe(custom);
+		bus.subscribe(player);
+
+		assertTrue(bus.hasSubscribers(CustomListener.EventType.BUFFER_START));
+		assertFalse(bus.hasSubscribers(CustomListener.EventType.SEEK));
+
+		// same ordinal as BUFFER_START, different family
+		bus.post(new SambaEvent(SambaPlayerListener.EventType.DESTROY));
+		bus.post(new SambaEvent(CustomListener.EventType.SEEK));
+		bus.post(new SambaEvent(CustomListener.EventType.BUFFER_START, 42));
+
+		assertEquals(1, custom.events.size());
+		assertSame(CustomListener.EventType.BUFFER_START, custom.events.get(0).getType());
+		assertEquals(42, custom.events.get(0).getData());
+
+		assertEquals(1, player.handled.size());
+		assertSame(SambaPlayerListener.EventType.DESTROY, player.handled.get(0));
+	}
+
+	@Test
+	public void ignoresObjectsWithoutFamily() {
+		SambaLocalEventBus bus = new SambaLocalEventBus(null);
+
+		bus.subscribe(new Object());
+		bus.unsubscribe(new Object());
+		bus.post(new SambaEvent(SambaPlayerListener.EventType.PLAY));
+
+		assertFalse(bus.hasSubscribers(SambaPlayerListener.EventType.PLAY));
+	}
+
+	@Test
+	public void stopsDispatchingOnUnsubscribe() {
+		SambaLocalEventBus bus = new SambaLocalEventBus(null);
+		RecordingListener first = new RecordingListener();
+		RecordingListener second = new RecordingListener();
+
+		bus.subscribe(first);
+		bus.subscribe(second);
+		bus.post(new SambaEvent(SambaPlayerListener.EventType.START));
+		bus.unsubscribe(first);
+		bus.post(new SambaEvent(SambaPlayerListener.EventType.STOP));
+
+		assertEquals(1, first.handled.size());
+		assertEquals(2, second.handled.size());
+
+		bus.unsubscribe(second);
+
+		assertFalse(bus.hasSubscribers(SambaPlayerListener.EventType.STOP));
+	}
+
+	@Test
+	public void forwardsEventsToParent() {
+		SambaLocalEventBus parent = new SambaLocalEventBus(null);
+		SambaLocalEventBus bus = new SambaLocalEventBus(parent);
+		RecordingListener listener = new RecordingListener();
+
+		parent.subscribe(listener);
+
+		assertTrue(bus.hasSubscribers(SambaPlayerListener.EventType.PLAY));
+
+		bus.post(new SambaEvent(SambaPlayerListener.EventType.PLAY));
+
+		assertEquals(1, listener.handled.size());
+	}
+
+	@Test
+	public void recordsEventsSkippedForLackOfListeners() {
+		SambaLocalEventBus parent = new SambaLocalEventBus(null);
+		SambaLocalEventBus bus = new SambaLocalEventBus(parent);
+		SambaEventRecorder recorder = new SambaEventRecorder(16);
+
+		bus.subscribe(new BaseListener());
+
+		assertFalse(bus.hasSubscribers(SambaPlayerListener.EventType.PROGRESS));
+
+		parent.setRecorder(recorder);
+		bus.post(new SambaEvent(SambaPlayerListener.EventType.LOAD));
+		bus.post(new SambaEvent(SambaPlayerListener.EventType.START));
+
+		// as gated by the player
+		if (bus.hasSubscribers(SambaPlayerListener.EventType.PROGRESS))
+			bus.post(new SambaEvent(SambaPlayerListener.EventType.PROGRESS, 1.5f, 60f));
+
+		assertEquals(3, recorder.size());
+		assertTrue(recorder.getElapsed(SambaPlayerListener.EventType.START, SambaPlayerListener.EventType.PROGRESS) >= 0);
+
+		parent.setRecorder(null);
+
+		assertFalse(bus.hasSubscribers(SambaPlayerListener.EventType.PROGRESS));
+	}
+
+	@Test
+	public void reportsLeaksOnlyOnTheDestroyedBus() {
+		SambaLocalEventBus parent = new SambaLocalEventBus(null);
+		SambaLocalEventBus bus = new SambaLocalEventBus(parent);
+		RecordingListener global = new RecordingListener();
+		RecordingListener leaked = new RecordingListener();
+
+		parent.subscribe(global);
+		bus.subscribe(leaked);
+		bus.post(new SambaEvent(SambaPlayerListener.EventType.DESTROY));
+
+		assertEquals(1, global.handled.size());
+		assertTrue(parent.getLeakReport().isEmpty());
+		assertEquals(1, bus.getLeakReport().size());
+		assertTrue(bus.getLeakReport().get(0).startsWith(RecordingListener.class.getName() + "@"));
+
+		parent.post(new SambaEvent(SambaPlayerListener.EventType.DESTROY));
+
+		assertEquals(1, parent.getLeakReport().size());
+	}
+
+	@Test
+	public void replaysLastStickyEventOnSubscribe() {
+		SambaLocalEventBus bus = new SambaLocalEventBus(null);
+		RecordingListener listener = new RecordingListener();
+
+		bus.setSticky(SambaPlayerListener.EventType.LOAD, true);
+		bus.post(new SambaEvent(SambaPlayerListener.EventType.LOAD, 1));
+		bus.post(new SambaEvent(SambaPlayerListener.EventType.LOAD, 2));
+		bus.post(new SambaEvent(SambaPlayerListener.EventType.PLAY));
+		bus.subscribe(listener);
+
+		assertEquals(1, listener.handled.size());
+		assertEquals(2, listener.events.get(0).getData());
+
+		bus.post(new SambaEvent(SambaPlayerListener.EventType.LOAD, 3));
+
+		assertEquals(2, listener.handled.size());
+		assertEquals(3, listener.events.get(1).getData());
+	}
+
+	@Test(timeout = 10000)
+	public void replaysWithoutHoldingTheBus() {
+		final SambaLocalEventBus bus = new SambaLocalEventBus(null);
+		final RecordingListener other = new RecordingListener();
+
+		bus.setSticky(SambaPlayerListener.EventType.LOAD, true);
+		bus.post(new SambaEvent(SambaPlayerListener.EventType.LOAD, 1));
+
+		// the replay waits for a post of a sticky type on another thread
+		bus.subscribe(new SambaPlayerListener() {
+			@Override
+			public void onLoad(SambaEvent event) {
+				if (!Integer.valueOf(1).equals(event.getData()))
+					return;
+
+				Thread poster = new Thread(new Runnable() {
+					@Override
+					public void run() {
+						bus.post(new SambaEvent(SambaPlayerListener.EventType.LOAD, 2));
+						bus.subscribe(other);
+					}
+				});
+
+				poster.start();
+
+				try {
+					poster.join();
+				}
+				catch (InterruptedException e) {
+					throw new RuntimeException(e);
+				}
+			}
+		});
+
+		assertEquals(1, other.handled.size());
+		assertEquals(2, other.events.get(0).getData());
+	}
+
+	@Test(timeout = 60000)
+	public void neverRepeatsStickyEvents() throws InterruptedException {
+		final SambaLocalEventBus bus = new SambaLocalEventBus(null);
+		final List<RecordingListener> listeners = new ArrayList<>();
+		final AtomicBoolean done = new AtomicBoolean();
+
+		bus.setSticky(SambaPlayerListener.EventType.LOAD, true);
+
+		Thread poster = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				for (int i = 1; !done.get(); ++i)
+					bus.post(new SambaEvent(SambaPlayerListener.EventType.LOAD, i));
+			}
+		});
+
+		poster.start();
+
+		for (int i = 0; i < 500; ++i) {
+			RecordingListener listener = new SynchronizedListener();
+
+			bus.subscribe(listener);
+			listeners.add(listener);
+		}
+
+		done.set(true);
+		poster.join();
+
+		for (RecordingListener listener : listeners) {
+			synchronized (listener) {
+				Set<Object> received = new HashSet<>();
+
+				for (SambaEvent event : listener.events)
+					assertTrue(received.add(event.getData()));
+			}
+		}
+	}
+
+	/**
+	 * Listener family other than the player's, resolved by its handler names.
+	 */
+	public static abstract class CustomListener {
+
+		public enum EventType implements SambaEventType {
+			SEEK,
+			BUFFER_START
+		}
+
+		public void onSeek(SambaEvent event) {}
+
+		public void onBufferStart(SambaEvent event) {}
+	}
+
+	public static class CustomListenerImpl extends CustomListener {
+		final List<SambaEvent> events = new ArrayList<>();
+
+		@Override
+		public void onBufferStart(SambaEvent event) {
+			events.add(event);
+		}
+	}
+
+	public static class BaseListener extends SambaPlayerListener {
+		final List<String> calls = new ArrayList<>();
+
+		@Override
+		public void onPlay(SambaEvent event) {
+			calls.add("base:" + event.getType());
+		}
+
+		@Override
+		public void onPause(SambaEvent event) {
+			calls.add("base:" + event.getType());
+		}
+
+		String calls() {
+			StringBuilder sb = new StringBuilder();
+
+			for (String call : calls)
+				sb.append(sb.length() > 0 ? ", " : "").append(call);
+
+			return sb.toString();
+		}
+	}
+
+	public static class LeafListener extends BaseListener {
+
+		@Override
+		public void onPlay(SambaEvent event) {
+			calls.add("leaf:" + event.getType());
+		}
+
+		@Override
+		public void onFinish(SambaEvent event) {
+			calls.add("leaf:" + event.getType());
+		}
+	}
+
+	/**
+	 * Records events posted from any thread.
+	 */
+	public static class SynchronizedListener extends RecordingListener {
+
+		@Override
+		public synchronized void onLoad(SambaEvent event) {
+			super.onLoad(event);
+		}
+	}
+
+	/**
+	 * Records which handler received each event.
+	 */
+	public static class RecordingListener extends SambaPlayerListener {
+		final List<SambaPlayerListener.EventType> handled = new ArrayList<>();
+		final List<SambaEvent> events = new ArrayList<>();
+
+		private void record(SambaPlayerListener.EventType handler, SambaEvent event) {
+			handled.add(handler);
+			events.add(event);
+		}
+
+		@Override public void onLoad(SambaEvent event) { record(EventType.LOAD, event); }
+		@Override public void onDestroy(SambaEvent event) { record(EventType.DESTROY, event); }
+		@Override public void onStart(SambaEvent event) { record(EventType.START, event); }
+		@Override public void onPlay(SambaEvent event) { record(EventType.PLAY, event); }
+		@Override public void onPause(SambaEvent event) { record(EventType.PAUSE, event); }
+		@Override public void onStop(SambaEvent event) { record(EventType.STOP, event); }
+		@Override public void onProgress(SambaEvent event) { record(EventType.PROGRESS, event); }
+		@Override public void onFullscreen(SambaEvent event) { record(EventType.FULLSCREEN, event); }
+		@Override public void onFullscreenExit(SambaEvent event) { record(EventType.FULLSCREEN_EXIT, event); }
+		@Override public void onFinish(SambaEvent event) { record(EventType.FINISH, event); }
+		@Override public void onResize(SambaEvent event) { record(EventType.RESIZE, event); }
+		@Override public void onClick(SambaEvent event) { record(EventType.CLICK, event); }
+		@Override public void onError(SambaEvent event) { record(EventType.ERROR, event); }
+		@Override public void onPortrait(SambaEvent event) { record(EventType.PORTRAIT, event); }
+		@Override public void onLandscape(SambaEvent event) { record(EventType.LANDSCAPE, event); }
+		@Override public void onCastConnect(SambaEvent event) { record(EventType.CAST_CONNECT, event); }
+		@Override public void onCastDisconnect(SambaEvent event) { record(EventType.CAST_DISCONNECT, event); }
+		@Override public void onCastPlay(SambaEvent event) { record(EventType.CAST_PLAY, event); }
+		@Override public void onCastPause(SambaEvent event) { record(EventType.CAST_PAUSE, event); }
+		@Override public void onCastFinish(SambaEvent event) { record(EventType.CAST_FINISH, event); }
+	}
+}
@@ -0,0 +1,54 @@
+package com.sambatech.player.event;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class SambaProgressChannelTest {
+
+	@Test
+	public void notifiesOnEveryReportByDefault() {
+		assertEquals(40, countNotifications(SambaProgressChannel.DEFAULT_INTERVAL_MS, 0));
+		assertEquals(40, countNotifications(0, 0));
+	}
+
+	@Test
+	public void roundsIntervalUpToWholeReports() {
+		for (long interval = 251; interval <= 500; ++interval)
+			assertEquals("interval " + interval, 20, countNotifications(interval, 0));
+
+		assertEquals(14, countNotifications(501, 0));
+		assertEquals(10, countNotifications(1000, 0));
+	}
+
+	@Test
+	public void toleratesReportJitter() {
+		// reports alternately late and early by 20ms
+		assertEquals(40, countNotifications(250, 20));
+		assertEquals(20, countNotifications(300, 20));
+		assertEquals(10, countNotifications(1000, 20));
+	}
+
+	/**
+	 * Simulates 40 player reports (10s of playback).
+	 */
+	private static int countNotifications(long intervalMs, long jitterMs) {
+		SambaProgressChannel channel = new SambaProgressChannel();
+		final int[] count = {0};
+
+		channel.subscribe(new SambaProgressListener() {
+			@Override
+			public void onProgress(long positionMs, long durationMs, long bufferedMs) {
+				++count[0];
+			}
+		}, intervalMs);
+
+		for (int i = 0; i < 40; ++i) {
+			long now = 1000 + i * 250 + (i % 2 == 0 ? jitterMs : -jitterMs);
+
+			channel.update(i * 250, 10000, i * 250, now);
+		}
+
+		return count[0];
+	}
+}